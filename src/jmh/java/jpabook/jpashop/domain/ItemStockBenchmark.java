@@ -0,0 +1,60 @@
+package jpabook.jpashop.domain;
+
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * 재고 차감/증가 (Item.removeStock / addStock)
+ * */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ItemStockBenchmark {
+
+    private static final int STOCK = 1_000_000_000;
+
+    private Item item;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        item = new Book();
+        item.setStockQuantity(STOCK);
+    }
+
+    // op 하나가 몇 ns라서 iteration 한 번에 수억 번 돌 수 있음 -> 재고가 바닥나거나 int를 넘기 전에 되돌림
+    @Benchmark
+    public int removeStock() {
+        if (item.getStockQuantity() == 0) {
+            item.setStockQuantity(STOCK);
+        }
+        item.removeStock(1);
+        return item.getStockQuantity();
+    }
+
+    @Benchmark
+    public int addStock() {
+        if (item.getStockQuantity() == Integer.MAX_VALUE) {
+            item.setStockQuantity(STOCK);
+        }
+        item.addStock(1);
+        return item.getStockQuantity();
+    }
+
+    // 주문 -> 취소 한 바퀴 (재고가 그대로라 iteration이 길어도 값이 안 넘침)
+    @Benchmark
+    public int removeThenAddStock() {
+        item.removeStock(1);
+        item.addStock(1);
+        return item.getStockQuantity();
+    }
+}
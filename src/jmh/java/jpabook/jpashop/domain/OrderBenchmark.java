@@ -0,0 +1,100 @@
+package jpabook.jpashop.domain;
+
+import jpabook.jpashop.domain.item.Book;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * 주문 도메인 로직 (주문 상품 수 1 ~ 500)
+ * DB 없이 엔티티 메서드만. 주문 API 지연시간 중 자바 쪽 비용이 얼마나 되는지 릴리스마다 비교용.
+ *
+ * createOrder는 반복할 때마다 재고가 줄어서 iteration마다 재고를 다시 채움.
+ * cancel은 같은 주문을 계속 취소하면 재고가 끝없이 늘어나서(int 넘침) 호출마다 새 주문을 만들어 둠 (CancelState).
+ * Order.createOrder는 member.getOrders()에 주문을 계속 쌓기 때문에 매번 새 Member로.
+ * */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OrderBenchmark {
+
+    private static final int STOCK = 1_000_000_000;
+
+    @Param({"1", "10", "100", "500"})
+    public int lines;
+
+    private Book[] books;
+    private Order order;        // calculateTotalPrice, storedTotalPrice 용 (미리 만들어 둔 주문)
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        books = new Book[lines];
+        for (int i = 0; i < lines; i++) {
+            Book book = new Book();
+            book.setName("book-" + i);
+            book.setPrice(10000 + i);
+            book.setStockQuantity(STOCK);
+            books[i] = book;
+        }
+        order = createOrder();
+    }
+
+    @Benchmark
+    public Order createOrder() {
+        OrderItem[] orderItems = new OrderItem[lines];
+        for (int i = 0; i < lines; i++) {
+            orderItems[i] = OrderItem.createOrderItem(books[i], books[i].getPrice(), 1);
+        }
+        return Order.createOrder(new Member(), new Delivery(), orderItems);
+    }
+
+    @Benchmark
+    public OrderItem[] createOrderItem() {
+        OrderItem[] orderItems = new OrderItem[lines];
+        for (int i = 0; i < lines; i++) {
+            orderItems[i] = OrderItem.createOrderItem(books[i], books[i].getPrice(), 1);
+        }
+        return orderItems;
+    }
+
+    // 주문상품을 다 돌면서 다시 더함 (주문 상품 수에 비례)
+    @Benchmark
+    public int calculateTotalPrice() {
+        return order.calculateTotalPrice();
+    }
+
+    // 저장된 total_price 필드만 읽음 (비교 기준)
+    @Benchmark
+    public int storedTotalPrice() {
+        return order.getTotalPrice();
+    }
+
+    // 측정 대상은 cancel만. 주문 만드는 건 CancelState의 Level.Invocation setup에서
+    @Benchmark
+    public Order cancel(CancelState state) {
+        state.order.cancel();
+        return state.order;
+    }
+
+    @State(Scope.Thread)
+    public static class CancelState {
+
+        private Order order;
+
+        @Setup(Level.Invocation)
+        public void setUp(OrderBenchmark benchmark) {
+            for (Book book : benchmark.books) {
+                book.setStockQuantity(STOCK);
+            }
+            order = benchmark.createOrder();
+        }
+    }
+}
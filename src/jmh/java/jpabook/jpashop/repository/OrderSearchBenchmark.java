@@ -0,0 +1,123 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.JpashopApplication;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * 주문 검색 3가지 방식 (문자열 JPQL / Criteria / 미리 만들어 둔 named query) 호출 비용
+ * in-memory H2로 애플리케이션을 띄우고 주문 20건을 넣어 둔 다음, 조건 조합 4개를 돌아가면서 호출.
+ * 트랜잭션 밖에서 부르기 때문에 호출마다 영속성 컨텍스트가 새로 만들어짐 (쌓인 엔티티가 다음 호출 비용을 바꾸지 않음)
+ * 세 방식이 같은 결과를 주는지는 OrderSearchTest에서 확인.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OrderSearchBenchmark {
+
+    private static final String MEMBER_NAME = "search-benchmark";
+
+    private ConfigurableApplicationContext context;
+    private OrderRepository orderRepository;
+    private OrderSearchQueryTemplates orderSearchQueryTemplates;
+    private List<OrderSearch> searches;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(JpashopApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:search-benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "logging.level.org.hibernate.SQL=warn",
+                        "logging.level.org.hibernate.type=warn")
+                .run();
+        orderRepository = context.getBean(OrderRepository.class);
+        orderSearchQueryTemplates = context.getBean(OrderSearchQueryTemplates.class);
+
+        MemberService memberService = context.getBean(MemberService.class);
+        ItemService itemService = context.getBean(ItemService.class);
+        OrderService orderService = context.getBean(OrderService.class);
+
+        Member member = new Member();
+        member.setName(MEMBER_NAME);
+        member.setAddress(new Address("서울", "강가", "12345"));
+        Long memberId = memberService.join(member);
+
+        Book book = new Book();
+        book.setName("search-benchmark-book");
+        book.setPrice(10000);
+        book.setStockQuantity(1000);
+        itemService.saveItem(book);
+
+        for (int i = 0; i < 20; i++) {
+            Long orderId = orderService.order(memberId, book.getId(), 1);
+            if (i % 2 == 0) {
+                orderService.cancelOrder(orderId);
+            }
+        }
+
+        searches = Arrays.asList(
+                search(null, null),
+                search(OrderStatus.ORDER, null),
+                search(null, MEMBER_NAME),
+                search(OrderStatus.CANCEL, MEMBER_NAME));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Order> findAllByString() {
+        return orderRepository.findAllByString(nextSearch());
+    }
+
+    @Benchmark
+    public List<Order> findAllByCriteria() {
+        return orderRepository.findAllByCriteria(nextSearch());
+    }
+
+    @Benchmark
+    public List<Order> queryTemplates() {
+        return orderSearchQueryTemplates.findAll(nextSearch());
+    }
+
+    private OrderSearch nextSearch() {
+        OrderSearch orderSearch = searches.get(next);
+        next = (next + 1) % searches.size();
+        return orderSearch;
+    }
+
+    private static OrderSearch search(OrderStatus status, String memberName) {
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setOrderStatus(status);
+        orderSearch.setMemberName(memberName);
+        return orderSearch;
+    }
+}
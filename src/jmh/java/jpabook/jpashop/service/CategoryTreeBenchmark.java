@@ -0,0 +1,121 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.JpashopApplication;
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * 카테고리 트리 10,000개 (한 노드당 자식 10개, 깊이 5 -> 11,111개) 하위 트리 조회 시간
+ * parent/child로 한 단계씩 내려가는 방식 vs path 하위 트리 조회 한 번
+ * in-memory H2로 애플리케이션을 띄우고 트리는 처음에 한 번만 만듦. 쿼리 수 비교는 CategoryTreeTest에서.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CategoryTreeBenchmark {
+
+    private static final int FANOUT = 10;
+    private static final int DEPTH = 4;         // 루트 아래 4단계
+    private static final int ITEM_EVERY = 100;  // 잎 노드 100개마다 상품 하나
+
+    private ConfigurableApplicationContext context;
+    private CategoryService categoryService;
+    private ItemService itemService;
+    private TransactionTemplate readOnly;
+    private Long rootId;
+    private int nodeCount;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(JpashopApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:category-benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "logging.level.org.hibernate.SQL=warn",
+                        "logging.level.org.hibernate.type=warn")
+                .run();
+        categoryService = context.getBean(CategoryService.class);
+        itemService = context.getBean(ItemService.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            rootId = categoryService.create("root", null);
+            nodeCount = 1;
+            createChildren(rootId, 1);
+        });
+
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // parent/child로 한 단계씩 (지연 로딩, batch fetch size만큼 묶임)
+    @Benchmark
+    public List<Category> adjacencyWalk() {
+        return readOnly.execute(status -> {
+            List<Category> result = new ArrayList<>();
+            collectChildren(categoryService.findOne(rootId), result);
+            return result;
+        });
+    }
+
+    // path로 한 번에
+    @Benchmark
+    public List<Category> materializedPath() {
+        return categoryService.findDescendants(rootId);
+    }
+
+    @Benchmark
+    public List<Item> itemsInSubtree() {
+        return categoryService.findItemsInSubtree(rootId);
+    }
+
+    private void collectChildren(Category category, List<Category> result) {
+        for (Category child : category.getChild()) {
+            result.add(child);
+            collectChildren(child, result);
+        }
+    }
+
+    private void createChildren(Long parentId, int depth) {
+        for (int i = 0; i < FANOUT; i++) {
+            Long childId = categoryService.create("category-" + nodeCount, parentId);
+            nodeCount++;
+            if (depth < DEPTH) {
+                createChildren(childId, depth + 1);
+            } else if (nodeCount % ITEM_EVERY == 0) {
+                Book book = new Book();
+                book.setName("category-book-" + nodeCount);
+                book.setPrice(10000);
+                book.setStockQuantity(10);
+                itemService.saveItem(book);
+                categoryService.findOne(childId).getItems().add(book);
+            }
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package jpabook.jpashop.loadtest;
+
+import jpabook.jpashop.JpashopApplication;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OptimisticLockRetryExecutor;
+import jpabook.jpashop.service.OrderProperties;
+import jpabook.jpashop.service.OrderService;
+import jpabook.jpashop.service.StockLedger;
+import jpabook.jpashop.service.StockLockMode;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.OptimisticLockException;
+import javax.persistence.PessimisticLockException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * 주문/취소 부하 테스트 (in-memory H2)
+ *
+ * 회원, 상품을 만들어 두고 스레드 여러 개로 정해진 시간 동안 OrderService.order / cancelOrder를 호출.
+ * 끝나면 처리량, 지연시간 분포(HdrHistogram), 데드락/락 실패 수, 재고 정합성 위반 수를 출력.
+ * 주문 경로를 바꿨을 때 부하에서 좋아졌는지 나빠졌는지 로컬에서 같은 조건으로 비교하는 용도.
+ *
+ * 설정 (--이름=값, 전부 생략 가능)
+ *   loadtest.threads=8, loadtest.duration-seconds=30, loadtest.warmup-seconds=5
+ *   loadtest.members=100, loadtest.items=20, loadtest.stock=100000
+ *   loadtest.max-count=3        주문 한 건의 수량 1 ~ max-count
+ *   loadtest.cancel-ratio=0.1   이 비율만큼은 주문 대신 자기가 했던 주문을 취소
+ *   jpashop.order.stock-lock-mode=atomic|optimistic|pessimistic|ledger 등 application.yml 설정도 그대로
+ *
+ * 정합성 위반(재고 = 처음 재고 - 취소 안 된 주문 수량)이 있으면 exit code 1
+ * */
+public class OrderLoadTest {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    public static void main(String[] args) throws Exception {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(JpashopApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "logging.level.org.hibernate.SQL=warn",
+                        "logging.level.org.hibernate.type=warn")
+                .run(args);
+
+        int violations;
+        try {
+            violations = new OrderLoadTest(context).run();
+        } finally {
+            context.close();
+        }
+        System.exit(violations == 0 ? 0 : 1);
+    }
+
+    private final OrderService orderService;
+    private final MemberService memberService;
+    private final ItemService itemService;
+    private final StockLedger stockLedger;
+    private final OrderProperties orderProperties;
+    private final OptimisticLockRetryExecutor retryExecutor;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final int threads;
+    private final int durationSeconds;
+    private final int warmupSeconds;
+    private final int memberCount;
+    private final int itemCount;
+    private final int stock;
+    private final int maxCount;
+    private final double cancelRatio;
+
+    private OrderLoadTest(ConfigurableApplicationContext context) {
+        this.orderService = context.getBean(OrderService.class);
+        this.memberService = context.getBean(MemberService.class);
+        this.itemService = context.getBean(ItemService.class);
+        this.stockLedger = context.getBean(StockLedger.class);
+        this.orderProperties = context.getBean(OrderProperties.class);
+        this.retryExecutor = context.getBean(OptimisticLockRetryExecutor.class);
+        this.jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        Environment env = context.getEnvironment();
+        this.threads = env.getProperty("loadtest.threads", Integer.class, 8);
+        this.durationSeconds = env.getProperty("loadtest.duration-seconds", Integer.class, 30);
+        this.warmupSeconds = env.getProperty("loadtest.warmup-seconds", Integer.class, 5);
+        this.memberCount = env.getProperty("loadtest.members", Integer.class, 100);
+        this.itemCount = env.getProperty("loadtest.items", Integer.class, 20);
+        this.stock = env.getProperty("loadtest.stock", Integer.class, 100_000);
+        this.maxCount = env.getProperty("loadtest.max-count", Integer.class, 3);
+        this.cancelRatio = env.getProperty("loadtest.cancel-ratio", Double.class, 0.1);
+    }
+
+    private int run() throws Exception {
+        List<Long> memberIds = seedMembers();
+        List<Long> itemIds = seedItems();
+
+        if (warmupSeconds > 0) {
+            drive(memberIds, itemIds, warmupSeconds);       // JIT, 커넥션 풀, 캐시 데우기 (결과는 버림)
+        }
+        long retriesBefore = retryExecutor.getRetryCount();
+        WorkerResult total = drive(memberIds, itemIds, durationSeconds);
+        long retries = retryExecutor.getRetryCount() - retriesBefore;
+
+        if (orderProperties.getStockLockMode() == StockLockMode.LEDGER) {
+            while (stockLedger.flush() > 0) {
+                // 장부가 item 테이블에 다 반영될 때까지
+            }
+        }
+        int violations = checkStock(itemIds);
+
+        report(total, retries, violations);
+        return violations;
+    }
+
+    private WorkerResult drive(List<Long> memberIds, List<Long> itemIds, int seconds) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<WorkerResult>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> work(memberIds, itemIds, deadline)));
+            }
+            WorkerResult total = new WorkerResult();
+            for (Future<WorkerResult> future : futures) {
+                total.add(future.get());
+            }
+            total.elapsedNanos = TimeUnit.SECONDS.toNanos(seconds);
+            return total;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private WorkerResult work(List<Long> memberIds, List<Long> itemIds, long deadline) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        WorkerResult result = new WorkerResult();
+        List<Long> myOrders = new ArrayList<>();
+
+        while (System.nanoTime() < deadline) {
+            boolean cancel = !myOrders.isEmpty() && random.nextDouble() < cancelRatio;
+            long begin = System.nanoTime();
+            try {
+                if (cancel) {
+                    orderService.cancelOrder(myOrders.remove(random.nextInt(myOrders.size())));
+                    result.cancels++;
+                } else {
+                    Long memberId = memberIds.get(random.nextInt(memberIds.size()));
+                    Long itemId = itemIds.get(random.nextInt(itemIds.size()));
+                    myOrders.add(orderService.order(memberId, itemId, 1 + random.nextInt(maxCount)));
+                    result.orders++;
+                }
+            } catch (NotEnoughStockException e) {
+                result.outOfStock++;
+            } catch (RuntimeException e) {
+                result.classify(e);
+            }
+            result.latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - begin), HIGHEST_TRACKABLE_MICROS));
+        }
+        return result;
+    }
+
+    private List<Long> seedMembers() {
+        List<Long> memberIds = new ArrayList<>(memberCount);
+        for (int i = 0; i < memberCount; i++) {
+            Member member = new Member();
+            member.setName("loadtest-member-" + i);
+            member.setAddress(new Address("서울", "강가", "12345"));
+            memberIds.add(memberService.join(member));
+        }
+        return memberIds;
+    }
+
+    private List<Long> seedItems() {
+        List<Long> itemIds = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            Book book = new Book();
+            book.setName("loadtest-book-" + i);
+            book.setPrice(10000);
+            book.setStockQuantity(stock);
+            itemService.saveItem(book);
+            itemIds.add(book.getId());
+        }
+        return itemIds;
+    }
+
+    /*
+     * 상품마다 재고 = 처음 재고 - 취소 안 된 주문 수량 인지, 재고가 음수가 아닌지
+     * */
+    private int checkStock(List<Long> itemIds) {
+        Map<Long, Long> ordered = new HashMap<>();
+        jdbcTemplate.query(
+                "select oi.item_id, sum(oi.count) from order_item oi join orders o on o.order_id = oi.order_id" +
+                        " where o.status = 'ORDER' group by oi.item_id",
+                rs -> {
+                    ordered.put(rs.getLong(1), rs.getLong(2));
+                });
+
+        int violations = 0;
+        for (Long itemId : itemIds) {
+            long actual = jdbcTemplate.queryForObject("select stock_quantity from item where item_id = ?", Long.class, itemId);
+            long expected = stock - ordered.getOrDefault(itemId, 0L);
+            if (actual != expected || actual < 0) {
+                violations++;
+                System.out.printf("stock violation: itemId=%d expected=%d actual=%d%n", itemId, expected, actual);
+            }
+        }
+        return violations;
+    }
+
+    private void report(WorkerResult total, long retries, int violations) {
+        Histogram latency = total.latency;
+        double seconds = total.elapsedNanos / 1_000_000_000.0;
+        System.out.println("==== order load test ====");
+        System.out.printf("mode=%s threads=%d duration=%ds members=%d items=%d stock=%d cancel-ratio=%.2f%n",
+                orderProperties.getStockLockMode(), threads, durationSeconds, memberCount, itemCount, stock, cancelRatio);
+        System.out.printf("orders=%d cancels=%d throughput=%.1f ops/s%n",
+                total.orders, total.cancels, (total.orders + total.cancels) / seconds);
+        System.out.printf("latency(ms) p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f%n",
+                latency.getValueAtPercentile(50) / 1000.0,
+                latency.getValueAtPercentile(90) / 1000.0,
+                latency.getValueAtPercentile(99) / 1000.0,
+                latency.getValueAtPercentile(99.9) / 1000.0,
+                latency.getMaxValue() / 1000.0);
+        System.out.printf("out-of-stock=%d deadlocks/lock-failures=%d optimistic-failures=%d retries=%d errors=%d%n",
+                total.outOfStock, total.lockFailures, total.optimisticFailures, retries, total.errors);
+        System.out.printf("stock consistency violations=%d%n", violations);
+    }
+
+    private static class WorkerResult {
+        final Histogram latency = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);     // 마이크로초, 유효숫자 3자리
+        long orders;
+        long cancels;
+        long outOfStock;
+        long lockFailures;          // 데드락, 락 대기 시간 초과
+        long optimisticFailures;    // 재시도를 다 써도 @Version 충돌
+        long errors;
+        long elapsedNanos;
+
+        void classify(RuntimeException e) {
+            if (e instanceof PessimisticLockingFailureException || e instanceof PessimisticLockException) {
+                lockFailures++;
+            } else if (e instanceof OptimisticLockingFailureException || e instanceof OptimisticLockException) {
+                optimisticFailures++;
+            } else {
+                errors++;
+                if (errors <= 10) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        void add(WorkerResult other) {
+            latency.add(other.latency);
+            orders += other.orders;
+            cancels += other.cancels;
+            outOfStock += other.outOfStock;
+            lockFailures += other.lockFailures;
+            optimisticFailures += other.optimisticFailures;
+            errors += other.errors;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package jpabook.jpashop.api;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/*
+ * 2차 캐시 영역별 hit/miss
+ * GET /api/cache/stats
+ * hibernate.generate_statistics가 꺼져 있으면 전부 0
+ * */
+@RestController
+@RequiredArgsConstructor
+public class CacheStatsApiController {
+
+    private final EntityManagerFactory emf;
+
+    @GetMapping("/api/cache/stats")
+    public List<CacheRegionStats> cacheStats() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(region -> new CacheRegionStats(region, statistics.getDomainDataRegionStatistics(region)))
+                .collect(Collectors.toList());
+    }
+
+    @Getter
+    static class CacheRegionStats {
+        private final String region;
+        private final long hitCount;
+        private final long missCount;
+        private final long putCount;
+        private final long elementCountInMemory;
+        private final double hitRatio;
+
+        CacheRegionStats(String region, CacheRegionStatistics statistics) {
+            this.region = region;
+            this.hitCount = statistics.getHitCount();
+            this.missCount = statistics.getMissCount();
+            this.putCount = statistics.getPutCount();
+            this.elementCountInMemory = statistics.getElementCountInMemory();
+            long lookups = hitCount + missCount;
+            this.hitRatio = lookups == 0 ? 0 : (double) hitCount / lookups;
+        }
+    }
+}
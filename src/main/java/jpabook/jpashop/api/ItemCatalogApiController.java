@@ -0,0 +1,62 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.repository.item.query.CatalogAlbumQueryDto;
+import jpabook.jpashop.repository.item.query.CatalogBookQueryDto;
+import jpabook.jpashop.repository.item.query.CatalogItemQueryDto;
+import jpabook.jpashop.repository.item.query.CatalogMovieQueryDto;
+import jpabook.jpashop.service.ItemService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/*
+ * 카탈로그 (상품 + 상품이 속한 카테고리)
+ * GET /api/items?offset=0&limit=20
+ * 상품 종류별 검색 (조건은 앞부분 일치, 없으면 그 종류 전체)
+ * GET /api/items/books?author=김&isbn=...&offset=0&limit=20
+ * GET /api/items/albums?artist=...
+ * GET /api/items/movies?director=...
+ * */
+@RestController
+@RequiredArgsConstructor
+public class ItemCatalogApiController {
+
+    private static final int MAX_LIMIT = 100;
+
+    private final ItemService itemService;
+
+    @GetMapping("/api/items")
+    public List<CatalogItemQueryDto> catalog(@RequestParam(defaultValue = "0") int offset,
+                                             @RequestParam(defaultValue = "20") int limit) {
+        return itemService.findCatalogPage(Math.max(0, offset), clampLimit(limit));
+    }
+
+    @GetMapping("/api/items/books")
+    public List<CatalogBookQueryDto> books(@RequestParam(required = false) String author,
+                                           @RequestParam(required = false) String isbn,
+                                           @RequestParam(defaultValue = "0") int offset,
+                                           @RequestParam(defaultValue = "20") int limit) {
+        return itemService.searchBooks(author, isbn, Math.max(0, offset), clampLimit(limit));
+    }
+
+    @GetMapping("/api/items/albums")
+    public List<CatalogAlbumQueryDto> albums(@RequestParam(required = false) String artist,
+                                             @RequestParam(defaultValue = "0") int offset,
+                                             @RequestParam(defaultValue = "20") int limit) {
+        return itemService.searchAlbums(artist, Math.max(0, offset), clampLimit(limit));
+    }
+
+    @GetMapping("/api/items/movies")
+    public List<CatalogMovieQueryDto> movies(@RequestParam(required = false) String director,
+                                             @RequestParam(defaultValue = "0") int offset,
+                                             @RequestParam(defaultValue = "20") int limit) {
+        return itemService.searchMovies(director, Math.max(0, offset), clampLimit(limit));
+    }
+
+    private static int clampLimit(int limit) {
+        return Math.min(Math.max(1, limit), MAX_LIMIT);
+    }
+}
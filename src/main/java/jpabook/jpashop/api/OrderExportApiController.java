@@ -0,0 +1,48 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.service.OrderExportFormat;
+import jpabook.jpashop.service.OrderExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Locale;
+
+/*
+ * 주문 전체 내보내기
+ * GET /api/orders/export?format=csv|ndjson&orderStatus=ORDER&memberName=...
+ * 응답 본문에 바로 써 내려가기 때문에 전체 결과를 메모리에 만들어 두지 않음
+ * format은 대소문자 구분 안 함 (csv, CSV 둘 다). 모르는 형식이면 400
+ * */
+@RestController
+@RequiredArgsConstructor
+public class OrderExportApiController {
+
+    private final OrderExportService orderExportService;
+
+    @GetMapping("/api/orders/export")
+    public void export(@RequestParam(name = "format", defaultValue = "csv") String formatName,
+                       OrderSearch orderSearch,
+                       HttpServletResponse response) throws IOException {
+        OrderExportFormat format = parseFormat(formatName);
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=\"orders." + format.getExtension() + "\"");
+
+        orderExportService.export(orderSearch, format, response.getWriter());
+    }
+
+    private static OrderExportFormat parseFormat(String formatName) {
+        try {
+            return OrderExportFormat.valueOf(formatName.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "지원하지 않는 형식입니다: " + formatName);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.metrics.MethodQueryStats;
+import jpabook.jpashop.metrics.QueryMetricsRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/*
+ * 서비스/리포지토리 메서드별 쿼리 통계
+ * GET /api/metrics/queries      (쿼리를 많이 낸 메서드부터)
+ * DELETE /api/metrics/queries   (초기화)
+ * */
+@RestController
+@RequiredArgsConstructor
+public class QueryMetricsApiController {
+
+    private final QueryMetricsRegistry queryMetricsRegistry;
+
+    @GetMapping("/api/metrics/queries")
+    public List<MethodQueryStats.Snapshot> queries() {
+        return queryMetricsRegistry.snapshot();
+    }
+
+    @DeleteMapping("/api/metrics/queries")
+    public void reset() {
+        queryMetricsRegistry.reset();
+    }
+}
@@ -0,0 +1,40 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.domain.sales.ItemDailySales;
+import jpabook.jpashop.domain.sales.MemberMonthlySales;
+import jpabook.jpashop.service.SalesReportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/*
+ * 매출 리포트 (집계 테이블 조회)
+ * GET /api/reports/sales/items?from=2024-01-01&to=2024-01-31[&itemId=1]       상품별 일 매출
+ * GET /api/reports/sales/members?from=2024-01&to=2024-12[&memberId=1]         회원별 월 매출
+ * */
+@RestController
+@RequiredArgsConstructor
+public class SalesReportApiController {
+
+    private final SalesReportService salesReportService;
+
+    @GetMapping("/api/reports/sales/items")
+    public List<ItemDailySales> itemDailySales(@RequestParam(required = false) Long itemId,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return salesReportService.findItemDailySales(itemId, from, to);
+    }
+
+    @GetMapping("/api/reports/sales/members")
+    public List<MemberMonthlySales> memberMonthlySales(@RequestParam(required = false) Long memberId,
+                                                       @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+                                                       @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+        return salesReportService.findMemberMonthlySales(memberId, from, to);
+    }
+}
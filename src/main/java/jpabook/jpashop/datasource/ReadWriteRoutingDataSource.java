@@ -0,0 +1,54 @@
+package jpabook.jpashop.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * 트랜잭션이 readOnly면 replica, 아니면 primary
+ *
+ * 트랜잭션 매니저는 readOnly 표시를 하기 전에 커넥션부터 가져오기 때문에
+ * 이걸 그대로 쓰면 항상 primary로 감 -> LazyConnectionDataSourceProxy로 감싸서 첫 쿼리 때 고르게 함 (ReadWriteRoutingConfig)
+ *
+ * 복제 지연: 쓰기 트랜잭션 다음 readYourWritesMillis 동안은 같은 스레드의 읽기도 primary로 보냄.
+ * 스레드 기준이라 같은 요청 안에서 "저장 -> 다시 조회" 하는 경우만 막아줌.
+ * */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    private final long readYourWritesNanos;
+    private final ThreadLocal<Long> lastWriteNanos = new ThreadLocal<>();
+
+    public ReadWriteRoutingDataSource(long readYourWritesMillis) {
+        this.readYourWritesNanos = TimeUnit.MILLISECONDS.toNanos(readYourWritesMillis);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (readYourWritesNanos > 0) {
+                lastWriteNanos.set(System.nanoTime());
+            }
+            return PRIMARY;
+        }
+        return wroteRecently() ? PRIMARY : REPLICA;
+    }
+
+    private boolean wroteRecently() {
+        Long lastWrite = lastWriteNanos.get();
+        if (lastWrite == null) {
+            return false;
+        }
+        if (System.nanoTime() - lastWrite < readYourWritesNanos) {
+            return true;
+        }
+        lastWriteNanos.remove();
+        return false;
+    }
+}
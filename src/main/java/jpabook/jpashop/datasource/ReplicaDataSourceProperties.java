@@ -0,0 +1,26 @@
+package jpabook.jpashop.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/*
+ * 읽기 전용 replica 접속 정보 (application.yml의 jpashop.datasource.replica.*)
+ * url이 있을 때만 읽기/쓰기 분리가 켜짐 (ReadWriteRoutingConfig)
+ * 커넥션 풀 설정은 jpashop.datasource.replica.hikari.* (spring.datasource.hikari.*와 같은 항목)
+ * */
+@ConfigurationProperties(prefix = "jpashop.datasource.replica")
+@Getter @Setter
+public class ReplicaDataSourceProperties {
+
+    private String url;
+    private String username;
+    private String password;
+    private String driverClassName;
+
+    /*
+     * 쓰기 트랜잭션 직후 이 시간 동안은 같은 스레드의 읽기도 primary로 (replica 복제 지연 때문에 방금 쓴 게 안 보이는 것 방지)
+     * 0이면 끔
+     * */
+    private long readYourWritesMillis = 1000;
+}
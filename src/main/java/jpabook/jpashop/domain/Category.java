@@ -1,8 +1,12 @@
 package jpabook.jpashop.domain;
 
+import jpabook.jpashop.domain.id.PooledSequenceGenerator;
 import jpabook.jpashop.domain.item.Item;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -11,10 +15,14 @@ import java.util.List;
 import static javax.persistence.FetchType.*;
 
 @Entity
+@Table(indexes = @Index(name = "idx_category_path", columnList = "path"))    // 하위 트리 조회 (path like '/1/5/%')
 @Getter @Setter
 public class Category {
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(generator = "category_seq")
+    @GenericGenerator(name = "category_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = "sequence_name", value = "category_seq"))
     @Column(name = "category_id")
     private Long id;
 
@@ -28,10 +36,42 @@ public class Category {
 
     @ManyToOne(fetch = LAZY)
     @JoinColumn(name = "parent_id")
+    @Setter(AccessLevel.NONE)       // changeParent로만 (child 컬렉션, path와 같이 바뀌어야 함)
     private Category parent;
 
     @OneToMany(mappedBy = "parent")
     private List<Category> child = new ArrayList<>();
 
+    /*
+     * 루트부터 자기까지의 id 경로 (materialized path) ex) "/1/5/12/"
+     * 하위 트리 전체 = path가 "/1/5/12/"로 시작하는 카테고리 -> 인덱스 범위 조회 한 번.
+     * parent로 한 단계씩 내려가면 노드 수만큼 쿼리가 나감.
+     * parent를 바꿀 때는 CategoryService가 하위 트리 path까지 같이 바꿔줌.
+     * */
+    @Column(length = 1000)
+    @Setter(AccessLevel.NONE)       // assignPath, CategoryRepository.movePath로만
+    private String path;
+
+    //==연관관계 메서드==//
+    public void changeParent(Category parent) {
+        if (this.parent != null) {
+            this.parent.getChild().remove(this);
+        }
+        this.parent = parent;
+        if (parent != null) {
+            parent.getChild().add(this);
+        }
+    }
+
+    //==비즈니스 로직==//
+    /** 부모 path 뒤에 자기 id를 붙임 (id가 있어야 해서 persist 다음에 호출) */
+    public void assignPath() {
+        this.path = (parent == null ? "/" : parent.getPath()) + id + "/";
+    }
+
+    /** other가 이 카테고리 자신이거나 하위 카테고리인지 */
+    public boolean isAncestorOf(Category other) {
+        return other.getPath().startsWith(path);
+    }
 
 }
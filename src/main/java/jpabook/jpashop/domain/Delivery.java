@@ -1,8 +1,13 @@
 package jpabook.jpashop.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import jpabook.jpashop.domain.id.PooledSequenceGenerator;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.LazyToOne;
+import org.hibernate.annotations.LazyToOneOption;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 
@@ -12,12 +17,20 @@ import static javax.persistence.FetchType.*;
 @Getter @Setter
 public class Delivery {
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(generator = "delivery_seq")
+    @GenericGenerator(name = "delivery_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = "sequence_name", value = "delivery_seq"))
     @Column(name = "delivery_id")
     private Long id;
 
+    /*
+    * 외래 키가 orders 쪽에 있어서 delivery만 봐서는 주문이 있는지 알 수 없음 -> 프록시를 못 만들고 LAZY여도 바로 조회됨.
+    * 바이트코드 확장(build.gradle의 hibernate.enhance) + NO_PROXY로 getOrder()를 부를 때 조회하게 함
+    * */
     @JsonIgnore
     @OneToOne(mappedBy = "delivery", fetch = LAZY)
+    @LazyToOne(LazyToOneOption.NO_PROXY)
     private Order order;
 
     @Embedded
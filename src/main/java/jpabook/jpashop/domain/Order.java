@@ -1,10 +1,13 @@
 package jpabook.jpashop.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import jpabook.jpashop.domain.id.PooledSequenceGenerator;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
@@ -14,12 +17,19 @@ import java.util.List;
 import static javax.persistence.FetchType.*;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_order_date_id", columnList = "order_date, order_id"),
+        @Index(name = "idx_orders_total_price", columnList = "total_price"),
+        @Index(name = "idx_orders_member", columnList = "member_id")
+})
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class Order {
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(generator = "orders_seq")
+    @GenericGenerator(name = "orders_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = "sequence_name", value = "orders_seq"))
     @Column(name = "order_id")
     private Long id;
 
@@ -41,6 +51,14 @@ public class Order {
     @Enumerated(EnumType.STRING)
     private OrderStatus status; //주문상태 [ORDER, CANCEL]
 
+    /*
+    * 주문 금액 (주문상품 가격 * 수량의 합)
+    * 목록, 리포트에서 합계 하나 보려고 orderItems를 전부 읽지 않게 orders에 같이 저장해 둠.
+    * addOrderItem에서 더하고, 취소하면 0 (결제 금액 기준). 어긋난 주문은 OrderTotalPriceChecker가 찾아냄
+    * */
+    @Setter(AccessLevel.NONE)
+    private int totalPrice;
+
     //==연관관계 메서드==//
     public void setMember(Member member) {
         this.member = member;
@@ -50,6 +68,7 @@ public class Order {
     public void addOrderItem(OrderItem orderItem) {
         orderItems.add(orderItem);
         orderItem.setOrder(this);
+        totalPrice += orderItem.getTotalPrice();
     }
 
     public void setDelivery(Delivery delivery) {
@@ -86,19 +105,26 @@ public class Order {
     //==비즈니스 로직==//
     /** 주문 취소 */
     public void cancel() {
+        markCanceled();
+        for (OrderItem orderItem : orderItems) {
+            orderItem.cancel();         // 한 사람이 여러개의 아이템을 주문할 수 있고 그 아이템 각각 취소룰 해주는 메서드가 필요함.
+        }
+    }
+
+    /** 주문 상태만 취소로 변경 (재고 원복은 호출하는 쪽에서 ItemRepository.releaseStock으로 처리할 때) */
+    public void markCanceled() {
         if (delivery.getStatus() == DeliveryStatus.COMP) {
             throw new IllegalStateException("이미 배송완료된 상품은 취소가 불가능합니다.");
         }
         this.setStatus(OrderStatus.CANCEL);
-        for (OrderItem orderItem : orderItems) {
-            orderItem.cancel();         // 한 사람이 여러개의 아이템을 주문할 수 있고 그 아이템 각각 취소룰 해주는 메서드가 필요함.
-        }
+        this.totalPrice = 0;
     }
 
 
     //==조회 로직==//
     /*
      * 주문 상품 전체 가격 조회
+     * -> 지금은 totalPrice 컬럼 (getTotalPrice). 주문상품을 다시 더해보려면 calculateTotalPrice
      * */
 /*    public int getTotalPrice() {
         int totalPrice = 0;
@@ -108,7 +134,7 @@ public class Order {
         return totalPrice;
     }*/
 
-    public int getTotalPrice() {
+    public int calculateTotalPrice() {
         return orderItems.stream().mapToInt(OrderItem::getTotalPrice).sum();
     }
 
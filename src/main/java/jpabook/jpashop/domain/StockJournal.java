@@ -0,0 +1,44 @@
+package jpabook.jpashop.domain;
+
+import jpabook.jpashop.domain.id.PooledSequenceGenerator;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/*
+ * 재고 장부 (StockLedger가 아직 item 테이블에 반영하지 않은 재고 변화량)
+ *
+ * 주문 트랜잭션 안에서 insert만 하기 때문에 인기 상품 row에 락이 몰리지 않음.
+ * 주문과 같이 커밋되니까 서버가 죽어도 남아 있고, 다음 flush(또는 재시작 시 복구)에서 item에 반영된 뒤 지워짐.
+ * */
+@Entity
+@Table(indexes = @Index(name = "idx_stock_journal_item", columnList = "item_id"))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class StockJournal {
+
+    @Id
+    @GeneratedValue(generator = "stock_journal_seq")
+    @GenericGenerator(name = "stock_journal_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = "sequence_name", value = "stock_journal_seq"))
+    @Column(name = "stock_journal_id")
+    private Long id;
+
+    @Column(name = "item_id")
+    private Long itemId;        // Item을 로딩하지 않으려고 연관관계 대신 id만 들고 있음
+
+    private int delta;          // 음수: 주문으로 차감, 양수: 취소로 원복
+
+    private LocalDateTime createdDate;
+
+    public StockJournal(Long itemId, int delta) {
+        this.itemId = itemId;
+        this.delta = delta;
+        this.createdDate = LocalDateTime.now();
+    }
+}
@@ -1,22 +1,38 @@
 package jpabook.jpashop.domain.item;
 
 import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.id.PooledSequenceGenerator;
 import jpabook.jpashop.exception.NotEnoughStockException;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "item")   // 2차 캐시는 루트에만 붙이면 Book/Album/Movie도 같은 영역을 씀
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @DiscriminatorColumn(name = "dtype")
+@Table(indexes = {      // SINGLE_TABLE이라 Book/Album/Movie 컬럼도 전부 item 테이블 -> 인덱스도 여기에 (CatalogQueryRepository 상품 종류별 검색)
+        @Index(name = "idx_item_dtype_author", columnList = "dtype, author, item_id"),
+        @Index(name = "idx_item_dtype_isbn", columnList = "dtype, isbn"),
+        @Index(name = "idx_item_dtype_artist", columnList = "dtype, artist, item_id"),
+        @Index(name = "idx_item_dtype_director", columnList = "dtype, director, item_id")
+})
 @Getter @Setter
 public abstract class Item {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "item_seq")
+    @GenericGenerator(name = "item_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = "sequence_name", value = "item_seq"))
     @Column(name = "item_id")
     private Long id;
 
@@ -24,6 +40,10 @@ public abstract class Item {
     private int price;
     private int stockQuantity;
 
+    @Version
+    private Long version;   // 낙관적 락: 재고를 동시에 바꾸면 나중에 커밋하는 쪽이 OptimisticLockException
+
+    @BatchSize(size = 100)      // 상품 한 페이지의 categories를 in 쿼리 한 번에 (설정 파일의 default_batch_fetch_size와 상관없이)
     @ManyToMany(mappedBy = "items")
     private List<Category> categories = new ArrayList<>();
 
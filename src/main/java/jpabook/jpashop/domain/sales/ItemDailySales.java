@@ -0,0 +1,56 @@
+package jpabook.jpashop.domain.sales;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Comparator;
+
+/*
+ * 상품별 일 매출 집계 (취소되지 않은 주문 기준, 주문한 날짜로)
+ *
+ * 주문/취소 트랜잭션이 커밋 직전에 증감분을 더해 감 (SalesRollupRecorder).
+ * 엔티티는 조회용. 값은 SalesRollupRepository가 SQL로만 바꿈.
+ * */
+@Entity
+@Table(name = "item_daily_sales", indexes = @Index(name = "idx_item_daily_sales_date", columnList = "sales_date"))
+@IdClass(ItemDailySales.Key.class)
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class ItemDailySales {
+
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Id
+    private LocalDate salesDate;
+
+    private long orderCount;    // 이 상품이 들어간 주문 수
+    private long quantity;      // 판매 수량
+    private long amount;        // 판매 금액 (주문 가격 * 수량)
+
+    @Getter
+    @EqualsAndHashCode
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable, Comparable<Key> {
+
+        // 같은 트랜잭션 안에서 row를 항상 같은 순서로 update 해야 트랜잭션끼리 데드락이 안 남
+        private static final Comparator<Key> ORDER = Comparator.comparing(Key::getSalesDate)
+                .thenComparing(Key::getItemId);
+
+        private Long itemId;
+        private LocalDate salesDate;
+
+        @Override
+        public int compareTo(Key other) {
+            return ORDER.compare(this, other);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package jpabook.jpashop.domain.sales;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Comparator;
+
+/*
+ * 회원별 월 매출 집계 (취소되지 않은 주문 기준, 주문한 달로)
+ * salesMonth는 그 달 1일.
+ * ItemDailySales와 마찬가지로 값은 SalesRollupRepository가 SQL로만 바꿈.
+ * */
+@Entity
+@Table(name = "member_monthly_sales", indexes = @Index(name = "idx_member_monthly_sales_month", columnList = "sales_month"))
+@IdClass(MemberMonthlySales.Key.class)
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class MemberMonthlySales {
+
+    @Id
+    @Column(name = "member_id")
+    private Long memberId;
+
+    @Id
+    private LocalDate salesMonth;
+
+    private long orderCount;    // 주문 수
+    private long amount;        // 주문 금액 합계
+
+    @Getter
+    @EqualsAndHashCode
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable, Comparable<Key> {
+
+        private static final Comparator<Key> ORDER = Comparator.comparing(Key::getSalesMonth)
+                .thenComparing(Key::getMemberId);
+
+        private Long memberId;
+        private LocalDate salesMonth;
+
+        @Override
+        public int compareTo(Key other) {
+            return ORDER.compare(this, other);
+        }
+    }
+}
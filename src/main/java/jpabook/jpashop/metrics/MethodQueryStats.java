@@ -0,0 +1,74 @@
+package jpabook.jpashop.metrics;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * 메서드 하나의 누적 통계 (여러 스레드에서 동시에 더함)
+ * */
+public class MethodQueryStats {
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder rowsFetched = new LongAdder();
+    private final LongAdder entityLoads = new LongAdder();
+    private final LongAdder elapsedNanos = new LongAdder();
+    private final LongAccumulator maxStatements = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maxRowsFetched = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maxElapsedNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder suspectedNPlusOne = new LongAdder();
+
+    void record(long statementCount, long rowCount, long entityLoadCount, long nanos) {
+        calls.increment();
+        statements.add(statementCount);
+        rowsFetched.add(rowCount);
+        entityLoads.add(entityLoadCount);
+        elapsedNanos.add(nanos);
+        maxStatements.accumulate(statementCount);
+        maxRowsFetched.accumulate(rowCount);
+        maxElapsedNanos.accumulate(nanos);
+    }
+
+    void markSuspectedNPlusOne() {
+        suspectedNPlusOne.increment();
+    }
+
+    Snapshot snapshot(String method) {
+        return new Snapshot(method, calls.sum(), statements.sum(), maxStatements.get(),
+                rowsFetched.sum(), maxRowsFetched.get(), entityLoads.sum(),
+                elapsedNanos.sum(), maxElapsedNanos.get(), suspectedNPlusOne.sum());
+    }
+
+    @Getter
+    public static class Snapshot {
+        private final String method;
+        private final long calls;
+        private final long statements;
+        private final double avgStatements;
+        private final long maxStatements;
+        private final long rowsFetched;         // ResultSet에서 읽은 row (DTO, 스칼라 조회 포함)
+        private final long maxRowsFetched;
+        private final long entityLoads;
+        private final double avgMillis;
+        private final double maxMillis;
+        private final long suspectedNPlusOne;
+
+        Snapshot(String method, long calls, long statements, long maxStatements,
+                 long rowsFetched, long maxRowsFetched, long entityLoads,
+                 long elapsedNanos, long maxElapsedNanos, long suspectedNPlusOne) {
+            this.method = method;
+            this.calls = calls;
+            this.statements = statements;
+            this.avgStatements = calls == 0 ? 0 : (double) statements / calls;
+            this.maxStatements = maxStatements;
+            this.rowsFetched = rowsFetched;
+            this.maxRowsFetched = maxRowsFetched;
+            this.entityLoads = entityLoads;
+            this.avgMillis = calls == 0 ? 0 : elapsedNanos / 1_000_000.0 / calls;
+            this.maxMillis = maxElapsedNanos / 1_000_000.0;
+            this.suspectedNPlusOne = suspectedNPlusOne;
+        }
+    }
+}
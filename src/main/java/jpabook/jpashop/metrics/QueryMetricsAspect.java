@@ -0,0 +1,36 @@
+package jpabook.jpashop.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/*
+ * @Service, @Repository 클래스의 public 메서드 호출마다 쿼리 수, 읽은 row 수, 엔티티 로딩 수, 걸린 시간을 잼
+ * 트랜잭션 프록시보다 바깥에서 감싸야 커밋 때 flush 되는 insert/update까지 들어감 -> 가장 높은 우선순위
+ * */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class QueryMetricsAspect {
+
+    private final QueryMetricsRegistry registry;
+
+    @Around("(@within(org.springframework.stereotype.Service) || @within(org.springframework.stereotype.Repository))" +
+            " && execution(public * jpabook.jpashop..*(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        String callSite = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+        QueryMetricsContext.Frame frame = QueryMetricsContext.push(callSite);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            boolean outermost = QueryMetricsContext.isOutermost();
+            QueryMetricsContext.pop();
+            registry.record(frame, outermost);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package jpabook.jpashop.metrics;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/*
+ * 지금 스레드에서 실행 중인 서비스/리포지토리 호출들 (바깥 -> 안쪽 순서의 스택)
+ * QueryMetricsDataSource(SQL, 읽은 row)와 PostLoad 리스너가 여기에 기록하면 스택에 있는 호출 모두에 더해짐
+ * -> 서비스 메서드 값에는 그 안에서 부른 리포지토리 쿼리까지 다 들어감
+ * */
+final class QueryMetricsContext {
+
+    // in (?, ?, ?) 처럼 파라미터 개수만 다른 쿼리는 같은 쿼리로 봄
+    private static final Pattern IN_LIST = Pattern.compile("in \\((\\?\\s*,\\s*)*\\?\\)", Pattern.CASE_INSENSITIVE);
+
+    private static final ThreadLocal<Deque<Frame>> FRAMES = ThreadLocal.withInitial(ArrayDeque::new);
+
+    // 테스트에서 SQL을 그대로 모을 때만 씀 (평소에는 null)
+    private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+    private QueryMetricsContext() {
+    }
+
+    static Frame push(String callSite) {
+        Frame frame = new Frame(callSite);
+        FRAMES.get().push(frame);
+        return frame;
+    }
+
+    static void pop() {
+        Deque<Frame> frames = FRAMES.get();
+        frames.pop();
+        if (frames.isEmpty()) {
+            FRAMES.remove();
+        }
+    }
+
+    static boolean isOutermost() {
+        return FRAMES.get().size() == 1;
+    }
+
+    static void startCapture() {
+        CAPTURED.set(new ArrayList<>());
+    }
+
+    static List<String> stopCapture() {
+        List<String> captured = CAPTURED.get();
+        CAPTURED.remove();
+        return captured;
+    }
+
+    static void statement(String sql) {
+        List<String> captured = CAPTURED.get();
+        if (captured != null) {
+            captured.add(sql);
+        }
+
+        Deque<Frame> frames = FRAMES.get();
+        if (frames.isEmpty()) {
+            return;
+        }
+        String shape = IN_LIST.matcher(sql).replaceAll("in (...)");
+        String issuedBy = frames.peek().callSite;      // 제일 안쪽 호출이 실제로 쿼리를 낸 곳
+        for (Frame frame : frames) {
+            frame.statements++;
+            frame.shapes.computeIfAbsent(shape, s -> new ShapeCount(issuedBy)).count++;
+        }
+    }
+
+    static void rowFetched() {
+        for (Frame frame : FRAMES.get()) {
+            frame.rowsFetched++;
+        }
+    }
+
+    static void entityLoaded() {
+        for (Frame frame : FRAMES.get()) {
+            frame.entityLoads++;
+        }
+    }
+
+    static final class Frame {
+        final String callSite;
+        final long startNanos = System.nanoTime();
+        long statements;
+        long rowsFetched;
+        long entityLoads;
+        final Map<String, ShapeCount> shapes = new LinkedHashMap<>();
+
+        private Frame(String callSite) {
+            this.callSite = callSite;
+        }
+    }
+
+    static final class ShapeCount {
+        final String issuedBy;
+        int count;
+
+        private ShapeCount(String issuedBy) {
+            this.issuedBy = issuedBy;
+        }
+    }
+}
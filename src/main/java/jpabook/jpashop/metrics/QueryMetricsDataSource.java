@@ -0,0 +1,118 @@
+package jpabook.jpashop.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * 커넥션에서 실제로 실행되는 SQL을 지금 호출에 기록하는 DataSource (SQL은 그대로 실행)
+ *
+ * hibernate StatementInspector로 받으면 hibernate를 거치는 SQL만 보여서
+ * JdbcTemplate으로 직접 보내는 SQL(재고 장부, 매출 집계 등)이 쿼리 수에서 빠졌음.
+ * DataSource에서 감싸면 hibernate든 JdbcTemplate이든 이 DataSource로 나가는 SQL은 다 들어감.
+ * execute* 한 번을 DB 왕복 한 번으로 셈. jdbc batch는 executeBatch 한 번을 한 번으로.
+ * 조회 결과(ResultSet)도 감싸서 next()로 실제로 읽은 row 수를 셈 (엔티티가 아닌 DTO, 스칼라 조회도 들어감).
+ * */
+class QueryMetricsDataSource extends DelegatingDataSource {
+
+    QueryMetricsDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(super.getConnection(username, password));
+    }
+
+    private static Connection wrapConnection(Connection connection) {
+        return proxy(Connection.class, connection, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (result instanceof Statement) {      // createStatement, prepareStatement, prepareCall
+                String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                return wrapStatement((Statement) result, sql);
+            }
+            return result;
+        });
+    }
+
+    private static Statement wrapStatement(Statement statement, String preparedSql) {
+        List<String> batch = new ArrayList<>();     // Statement.addBatch(sql)로 모은 SQL (PreparedStatement는 preparedSql 하나)
+        InvocationHandler handler = (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.equals("addBatch") && args != null && args.length == 1) {
+                batch.add((String) args[0]);
+            } else if (name.equals("clearBatch")) {
+                batch.clear();
+            } else if (name.equals("executeBatch") || name.equals("executeLargeBatch")) {
+                QueryMetricsContext.statement(preparedSql != null ? preparedSql : String.join(";\n", batch));
+                batch.clear();
+            } else if (name.startsWith("execute")) {
+                QueryMetricsContext.statement(args != null && args.length > 0 && args[0] instanceof String
+                        ? (String) args[0] : preparedSql);
+            }
+            Object result = invoke(statement, method, args);
+            if (result instanceof ResultSet && (name.equals("executeQuery") || name.equals("getResultSet"))) {
+                return wrapResultSet((ResultSet) result);
+            }
+            return result;
+        };
+
+        if (statement instanceof CallableStatement) {
+            return proxy(CallableStatement.class, statement, handler);
+        }
+        if (statement instanceof PreparedStatement) {
+            return proxy(PreparedStatement.class, statement, handler);
+        }
+        return proxy(Statement.class, statement, handler);
+    }
+
+    private static ResultSet wrapResultSet(ResultSet resultSet) {
+        return proxy(ResultSet.class, resultSet, (proxy, method, args) -> {
+            Object result = invoke(resultSet, method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                QueryMetricsContext.rowFetched();
+            }
+            return result;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(QueryMetricsDataSource.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    // 프록시끼리 비교 (hibernate가 statement를 map 키로 씀)
+                    if (method.getName().equals("equals") && method.getParameterCount() == 1) {
+                        return proxy == args[0];
+                    }
+                    if (method.getName().equals("hashCode") && method.getParameterCount() == 0) {
+                        return System.identityHashCode(proxy);
+                    }
+                    return handler.invoke(proxy, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package jpabook.jpashop.metrics;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/*
+ * 애플리케이션이 쓰는 DataSource("dataSource" 빈)를 QueryMetricsDataSource로 감쌈
+ * JPA, JdbcTemplate, 트랜잭션 매니저가 모두 이 빈을 받아가서 같은 DataSource를 보게 됨.
+ * 읽기/쓰기 분리(ReadWriteRoutingConfig)면 primary/replica 커넥션 풀은 그대로 두고 앞에 있는 라우팅 DataSource만 (두 번 세지 않게)
+ * */
+@Component
+public class QueryMetricsDataSourcePostProcessor implements BeanPostProcessor {
+
+    private static final String DATA_SOURCE_BEAN_NAME = "dataSource";
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource && DATA_SOURCE_BEAN_NAME.equals(beanName)) {
+            return new QueryMetricsDataSource((DataSource) bean);
+        }
+        return bean;
+    }
+}
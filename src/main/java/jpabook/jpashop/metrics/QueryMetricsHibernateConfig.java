@@ -0,0 +1,44 @@
+package jpabook.jpashop.metrics;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Collections;
+
+/*
+ * hibernate에 쿼리 메트릭 수집기 등록
+ *  - PostLoad 리스너: DB에서 읽어서 만든 엔티티 (fetch join, 지연 로딩 포함)
+ * 실행되는 SQL은 hibernate 밖의 JDBC까지 세려고 DataSource에서 받음 (QueryMetricsDataSource)
+ * */
+@Configuration
+public class QueryMetricsHibernateConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer queryMetricsHibernateCustomizer() {
+        return hibernateProperties -> {
+            hibernateProperties.put("hibernate.integrator_provider",
+                    (IntegratorProvider) () -> Collections.singletonList(new EntityLoadIntegrator()));
+        };
+    }
+
+    private static class EntityLoadIntegrator implements Integrator {
+
+        @Override
+        public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+            serviceRegistry.getService(EventListenerRegistry.class)
+                    .appendListeners(EventType.POST_LOAD, event -> QueryMetricsContext.entityLoaded());
+        }
+
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        }
+    }
+}
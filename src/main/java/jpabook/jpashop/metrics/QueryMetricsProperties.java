@@ -0,0 +1,18 @@
+package jpabook.jpashop.metrics;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/*
+ * 쿼리 메트릭 설정 (application.yml의 jpashop.metrics.*)
+ * */
+@Component
+@ConfigurationProperties(prefix = "jpashop.metrics")
+@Getter @Setter
+public class QueryMetricsProperties {
+
+    // 서비스 호출 한 번에 같은 모양의 쿼리가 이 횟수를 넘으면 N+1 경고 로그
+    private int repeatedStatementThreshold = 10;
+}
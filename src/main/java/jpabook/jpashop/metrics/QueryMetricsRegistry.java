@@ -0,0 +1,52 @@
+package jpabook.jpashop.metrics;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/*
+ * 서비스/리포지토리 메서드별 쿼리 통계 + N+1 감지
+ * */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class QueryMetricsRegistry {
+
+    private final QueryMetricsProperties properties;
+
+    private final Map<String, MethodQueryStats> stats = new ConcurrentHashMap<>();
+
+    void record(QueryMetricsContext.Frame frame, boolean outermost) {
+        MethodQueryStats methodStats = stats.computeIfAbsent(frame.callSite, k -> new MethodQueryStats());
+        methodStats.record(frame.statements, frame.rowsFetched, frame.entityLoads, System.nanoTime() - frame.startNanos);
+
+        // 안쪽 호출까지 다 합쳐진 바깥 호출에서 한 번만 검사 (같은 N+1을 여러 번 경고하지 않게)
+        if (outermost) {
+            frame.shapes.forEach((sql, shape) -> {
+                if (shape.count > properties.getRepeatedStatementThreshold()) {
+                    methodStats.markSuspectedNPlusOne();
+                    log.warn("possible N+1: {} issued the same statement {} times (call site: {}) sql={}",
+                            frame.callSite, shape.count, shape.issuedBy, sql);
+                }
+            });
+        }
+    }
+
+    // 쿼리를 많이 낸 메서드부터
+    public List<MethodQueryStats.Snapshot> snapshot() {
+        return stats.entrySet().stream()
+                .map(entry -> entry.getValue().snapshot(entry.getKey()))
+                .sorted(Comparator.comparingLong(MethodQueryStats.Snapshot::getStatements).reversed())
+                .collect(Collectors.toList());
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+}
@@ -0,0 +1,90 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.item.Item;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityKey;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class CategoryRepository {
+
+    private final EntityManager em;
+
+    /*
+    * 카테고리 등록
+    * */
+    public void save(Category category) {
+        em.persist(category);
+    }
+
+    /*
+    * 카테고리 단건 조회
+    * */
+    public Category findOne(Long id) {
+        return em.find(Category.class, id);
+    }
+
+    /*
+    * 하위 카테고리 전체 (자기 자신 제외, 모든 깊이)
+    * path 앞부분이 같은 것만 찾는 like라서 idx_category_path 인덱스 범위 조회 한 번
+    * */
+    public List<Category> findDescendants(Category category) {
+        return em.createQuery(
+                        "select c from Category c where c.path like :prefix and c.id <> :id order by c.path", Category.class)
+                .setParameter("prefix", category.getPath() + "%")
+                .setParameter("id", category.getId())
+                .getResultList();
+    }
+
+    /*
+    * 하위 트리(자기 자신 포함)에 속한 상품 전체 (여러 카테고리에 걸친 상품은 한 번만)
+    * */
+    public List<Item> findItemsInSubtree(Category category) {
+        return em.createQuery(
+                        "select distinct i from Category c join c.items i where c.path like :prefix", Item.class)
+                .setParameter("prefix", category.getPath() + "%")
+                .getResultList();
+    }
+
+    /*
+    * 하위 트리 path 일괄 변경 (카테고리 이동)
+    * oldPath로 시작하는 path(자기 자신 + 하위 전체)의 앞부분을 newPath로 바꿈
+    * 벌크 update라 영속성 컨텍스트에 올라와 있는 카테고리는 예전 path를 들고 있음 -> 옮긴 하위 트리에 속한 것은 다시 읽어줌
+    * */
+    public void movePath(Category category, String newPath) {
+        String oldPath = category.getPath();
+        em.createQuery("update Category c set c.path = concat(:newPath, substring(c.path, :start))" +
+                        " where c.path like :prefix")
+                .setParameter("newPath", newPath)
+                .setParameter("start", oldPath.length() + 1)
+                .setParameter("prefix", oldPath + "%")
+                .executeUpdate();
+        refreshManaged(oldPath);
+    }
+
+    /*
+    * 영속성 컨텍스트에 올라와 있는 카테고리 중 path가 prefix로 시작하는 것만 refresh
+    * clear 하면 호출한 쪽이 들고 있는 다른 엔티티까지 준영속이 되니까, 옮긴 하위 트리에 속한 것만 (보통 몇 개 안 됨)
+    * */
+    private void refreshManaged(String prefix) {
+        List<Category> stale = new ArrayList<>();
+        for (Object key : em.unwrap(Session.class).getStatistics().getEntityKeys()) {
+            EntityKey entityKey = (EntityKey) key;
+            if (!Category.class.getName().equals(entityKey.getEntityName())) {
+                continue;
+            }
+            Category managed = em.find(Category.class, entityKey.getIdentifier());     // 이미 올라와 있어서 select 없음
+            if (managed.getPath() != null && managed.getPath().startsWith(prefix)) {
+                stale.add(managed);
+            }
+        }
+        stale.forEach(em::refresh);
+    }
+}
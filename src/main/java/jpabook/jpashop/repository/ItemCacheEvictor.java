@@ -0,0 +1,47 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.item.Item;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+import java.util.Collection;
+
+/*
+ * Item 2차 캐시 무효화 (엔티티를 거치지 않고 SQL로 직접 item을 바꿨을 때)
+ *
+ * 변경 감지/merge로 바꾸면 hibernate가 캐시를 알아서 맞춰주지만, 재고 차감 같은 벌크 update는 캐시를 모름.
+ * hibernate에 맡기면 (synchronized entity) Item 영역 전체를 비워버려서 주문 한 건마다 카탈로그 캐시가 다 날아감
+ * -> 바뀐 상품 id만 골라서 지움.
+ *
+ * 지금 지우고 끝내면, 커밋 전에 다른 트랜잭션이 예전 값을 읽어서 캐시에 다시 넣을 수 있음.
+ * 그래서 트랜잭션이 끝난 뒤(커밋/롤백)에 한 번 더 지움.
+ * */
+@Component
+@RequiredArgsConstructor
+public class ItemCacheEvictor {
+
+    private final EntityManagerFactory emf;
+
+    public void evict(Long itemId) {
+        Cache cache = emf.getCache();
+        cache.evict(Item.class, itemId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evict(Item.class, itemId);
+                }
+            });
+        }
+    }
+
+    public void evictAll(Collection<Long> itemIds) {
+        for (Long itemId : itemIds) {
+            evict(itemId);
+        }
+    }
+}
@@ -2,16 +2,36 @@ package jpabook.jpashop.repository;
 
 import jpabook.jpashop.domain.item.Item;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.CacheStoreMode;
 import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 @Repository
 @RequiredArgsConstructor
 public class ItemRepository {
 
+    /*
+    * 재고 update(native)가 가리키는 query space.
+    * native update에 query space를 안 주면 hibernate는 뭘 바꿨는지 몰라서 2차 캐시를 통째로 비움.
+    * item 테이블이나 Item 엔티티를 주면 Item 캐시 영역 전체를 비움.
+    * -> 어떤 엔티티에도 안 걸리는 이름을 주고, 바뀐 상품만 ItemCacheEvictor로 지움.
+    * 대신 hibernate가 이 update 전에 Item 변경을 자동으로 flush 하지 않음 -> stockUpdate에서 직접 flush.
+    * */
+    private static final String STOCK_QUERY_SPACE = "item_stock";
+
     private final EntityManager em;
+    private final ItemCacheEvictor itemCacheEvictor;
 
     /*
     * 아이템 등록
@@ -39,4 +59,111 @@ public class ItemRepository {
                 .getResultList();
     }
 
+    /*
+    * 아이템 한 페이지 (id 순)
+    * 화면에서 item.getCategories()를 건드려도 상품마다 쿼리가 나가지 않고
+    * Item.categories의 @BatchSize만큼 in 쿼리로 한꺼번에 초기화됨
+    * */
+    public List<Item> findPage(int offset, int limit) {
+        return em.createQuery("select i from Item i order by i.id", Item.class)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /*
+    * 아이템 단건 조회 + 비관적 락 (select ... for update)
+    * */
+    public Item findOneForUpdate(Long id) {
+        return em.find(Item.class, id, LockModeType.PESSIMISTIC_WRITE);
+    }
+
+    /*
+    * 아이템 여러 건 조회
+    * 장바구니처럼 상품이 여러 개일 때 findOne을 상품 수만큼 부르지 않고 in 쿼리 한 번으로 가져옴
+    * JPQL로 조회하면 2차 캐시를 안 보기 때문에 multiLoad로
+    * -> 영속성 컨텍스트, 2차 캐시에 있는 건 그대로 쓰고 없는 id만 in 쿼리로 가져옴. 없는 id는 빠짐
+    * */
+    public List<Item> findAllByIds(Collection<Long> ids) {
+        return em.unwrap(Session.class)
+                .byMultipleIds(Item.class)
+                .multiLoad(new ArrayList<>(ids))
+                .stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /*
+    * 아이템 여러 건 조회 + 비관적 락
+    * 락을 거는 순서가 트랜잭션마다 다르면 데드락이 날 수 있어서 id 순서로 잠금
+    * */
+    public List<Item> findAllByIdsForUpdate(Collection<Long> ids) {
+        return em.createQuery("select i from Item i where i.id in :ids order by i.id", Item.class)
+                .setParameter("ids", ids)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+    }
+
+    /*
+    * 재고 차감 (조건부 update 한 방)
+    *
+    * 기존: select로 stockQuantity를 읽고 -> 자바에서 빼고 -> 변경 감지로 update.
+    *   같은 상품에 주문이 동시에 들어오면 둘 다 같은 값을 읽고 덮어써서 차감 하나가 사라짐 (lost update -> 초과 판매)
+    * 지금: DB가 읽기/검사/쓰기를 한 문장으로 처리하기 때문에 경쟁이 생기지 않음.
+    * 재고가 모자라면 영향받은 row가 0 -> false
+    * version도 같이 올려서 낙관적 락으로 같은 상품을 읽어 둔 쪽이 충돌을 알 수 있게 함 (update versioned 와 같음)
+    * 2차 캐시 때문에 JPQL 벌크 update 대신 native + STOCK_QUERY_SPACE (위 설명 참고)
+    * */
+    public boolean tryReserveStock(Long itemId, int quantity) {
+        int updated = stockUpdate(
+                        "update item set stock_quantity = stock_quantity - :quantity, version = version + 1" +
+                                " where item_id = :id and stock_quantity >= :quantity")
+                .setParameter("quantity", quantity)
+                .setParameter("id", itemId)
+                .executeUpdate();
+        if (updated == 0) {
+            return false;
+        }
+        afterStockUpdate(itemId);
+        return true;
+    }
+
+    /*
+    * 재고 원복 (주문 취소)
+    * */
+    public void releaseStock(Long itemId, int quantity) {
+        stockUpdate("update item set stock_quantity = stock_quantity + :quantity, version = version + 1 where item_id = :id")
+                .setParameter("quantity", quantity)
+                .setParameter("id", itemId)
+                .executeUpdate();
+        afterStockUpdate(itemId);
+    }
+
+    /*
+    * 같은 트랜잭션에서 저장/변경한 Item이 아직 flush 전이면
+    * update가 그 row를 못 보고(재고 0건 갱신 -> 재고 부족), 뒤의 refresh가 변경 내용을 덮어씀 -> 먼저 flush
+    * */
+    private NativeQuery<?> stockUpdate(String sql) {
+        em.flush();
+        return em.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(STOCK_QUERY_SPACE);
+    }
+
+    /*
+    * 벌크 update는 영속성 컨텍스트와 2차 캐시를 거치지 않고 DB로 바로 감.
+    * 2차 캐시에서는 그 상품만 지우고,
+    * 이미 영속성 컨텍스트에 올라와 있는 Item은 예전 재고를 들고 있으니까 다시 읽어줌.
+    * getReference는 이미 관리 중이면 그 엔티티를, 아니면 초기화 안 된 프록시를 주기 때문에 (select 없음)
+    * 관리 중이 아니었던 상품에는 select가 추가로 나가지 않음.
+    * */
+    private void afterStockUpdate(Long itemId) {
+        itemCacheEvictor.evict(itemId);
+        Item item = em.getReference(Item.class, itemId);
+        if (Hibernate.isInitialized(item)) {
+            // 다시 읽은 값은 아직 커밋 전이라 2차 캐시에 넣으면 안 됨 (BYPASS)
+            em.refresh(item, Collections.singletonMap("javax.persistence.cache.storeMode", CacheStoreMode.BYPASS));
+        }
+    }
+
 }
@@ -5,7 +5,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /* 내가 전에 배운 JpaRepository를 상속하지 않고
 EntityManager로 영속성 관리를 하고 JpaRepository가 제공하는 기본 메서드를 사용하지 않는 이유는 뭘까
@@ -70,4 +72,44 @@ public class MemberRepository {
                 .getResultList();
     }
 
+    // 같은 이름의 회원이 있는지 (엔티티를 다 읽지 않고 uk_member_name 인덱스에서 한 건만 확인)
+    public boolean existsByName(String name) {
+        return !em.createQuery("select m.id from Member m where m.name = :name", Long.class)
+                .setParameter("name", name)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
+    }
+
+    // 이미 가입된 이름만 골라냄 (일괄 가입 때 청크 단위 in 쿼리)
+    public List<String> findNamesIn(Collection<String> names) {
+        return em.createQuery("select m.name from Member m where m.name in :names", String.class)
+                .setParameter("names", names)
+                .getResultList();
+    }
+
+    // 가입된 회원 이름 전체 (MemberNameFilter 채울 때. 다 쓰고 나면 close 해야 함)
+    public Stream<String> streamAllNames() {
+        return em.createQuery("select m.name from Member m where m.name is not null", String.class)
+                .getResultStream();
+    }
+
+    // 회원 id + 이름 전체 -> [id, name] (MemberNameIndex 채울 때. 다 쓰고 나면 close 해야 함)
+    public Stream<Object[]> streamAllIdsAndNames() {
+        return em.createQuery("select m.id, m.name from Member m where m.name is not null", Object[].class)
+                .getResultStream();
+    }
+
+    // 모아둔 insert를 보내고 영속성 컨텍스트를 비움 (대량 저장할 때 메모리가 계속 늘지 않게)
+    public void flushAndClear() {
+        em.flush();
+        em.clear();
+    }
+
+    // 회원 저장 + 바로 insert (unique 제약 위반을 커밋 전에 여기서 알 수 있게)
+    public void saveAndFlush(Member member) {
+        em.persist(member);
+        em.flush();
+    }
+
 }
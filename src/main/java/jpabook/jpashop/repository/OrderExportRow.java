@@ -0,0 +1,34 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/*
+ * 주문 내보내기 한 줄 (주문 + 주문상품 1개)
+ * */
+@Getter
+public class OrderExportRow {
+
+    private final Long orderId;
+    private final LocalDateTime orderDate;
+    private final OrderStatus orderStatus;
+    private final String memberName;
+    private final Long orderItemId;
+    private final String itemName;
+    private final int orderPrice;
+    private final int count;
+
+    public OrderExportRow(Long orderId, LocalDateTime orderDate, OrderStatus orderStatus, String memberName,
+                          Long orderItemId, String itemName, int orderPrice, int count) {
+        this.orderId = orderId;
+        this.orderDate = orderDate;
+        this.orderStatus = orderStatus;
+        this.memberName = memberName;
+        this.orderItemId = orderItemId;
+        this.itemName = itemName;
+        this.orderPrice = orderPrice;
+        this.count = count;
+    }
+}
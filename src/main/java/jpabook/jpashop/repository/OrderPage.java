@@ -0,0 +1,25 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.Order;
+import lombok.Getter;
+
+import java.util.List;
+
+/*
+ * 주문 목록 한 페이지 + 다음 페이지 토큰 (마지막 페이지면 null)
+ * */
+@Getter
+public class OrderPage {
+
+    private final List<Order> orders;
+    private final String nextPageToken;
+
+    public OrderPage(List<Order> orders, String nextPageToken) {
+        this.orders = orders;
+        this.nextPageToken = nextPageToken;
+    }
+
+    public boolean hasNext() {
+        return nextPageToken != null;
+    }
+}
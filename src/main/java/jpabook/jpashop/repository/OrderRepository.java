@@ -2,15 +2,20 @@ package jpabook.jpashop.repository;
 
 import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderStatus;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
 
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Repository
 @RequiredArgsConstructor
@@ -64,14 +69,12 @@ public class OrderRepository {
         // 회원 이름 검색
         if (StringUtils.hasText(orderSearch.getMemberName())) {
             if (isFirstCondition) {
-                if (isFirstCondition) {
-                    jpql += " where";
-                    isFirstCondition = false;
-                } else {
-                    jpql += " and";
-                }
-                jpql += " o.name = :name";
+                jpql += " where";
+                isFirstCondition = false;
+            } else {
+                jpql += " and";
             }
+            jpql += " m.name = :name";
         }
 
         TypedQuery<Order> query = em.createQuery(jpql, Order.class)
@@ -129,6 +132,143 @@ public class OrderRepository {
         return query.getResultList();
     }
 
+    /*
+     * 주문 검색 (엔티티 그대로 쓰는 조회용)
+     * member, delivery는 ToOne이라 fetch join으로 한 번에 가져옴.
+     * orderItems, item은 컬렉션이라 fetch join하면 row가 뻥튀기되고 페이징도 안 되니까
+     * hibernate.default_batch_fetch_size 설정으로 처음 건드릴 때 in 쿼리로 한꺼번에 초기화됨.
+     * -> 주문 건수와 상관없이 쿼리 수가 일정함 (화면용 DTO가 필요하면 OrderQueryRepository)
+     * */
+    public List<Order> findAllWithMemberDelivery(OrderSearch orderSearch) {
+        String jpql = "select o from Order o join fetch o.member m join fetch o.delivery d";
+        List<String> conditions = OrderSearchPredicates.of(orderSearch);
+        if (!conditions.isEmpty()) {
+            jpql += " where " + String.join(" and ", conditions);
+        }
+        if (orderSearch.getSort() != null) {
+            jpql += " order by " + orderSearch.getSort().orderBy();
+        }
+
+        TypedQuery<Order> query = em.createQuery(jpql, Order.class)
+                .setMaxResults(1000);       // 최대 1000건
+        OrderSearchPredicates.bind(query, orderSearch);
+        return query.getResultList();
+    }
+
+    /*
+     * 주문 검색 + keyset(seek) 페이징
+     *
+     * setFirstResult(offset)로 페이징하면 DB는 offset 만큼 읽고 버려야 해서 뒤 페이지로 갈수록 느려짐.
+     * 대신 마지막으로 본 (orderDate, order_id) 다음부터 읽으면 (idx_orders_order_date_id 인덱스)
+     * 몇 번째 페이지든 첫 페이지와 같은 비용으로 size 건만 읽음.
+     * 정렬: 최신 주문 먼저 (orderDate desc, order_id desc). order_id는 orderDate가 같을 때 순서를 정해주는 용도.
+     * (커서가 이 정렬 기준이라 OrderSearch.sort는 여기서는 안 씀)
+     * */
+    public OrderPage findPage(OrderSearch orderSearch, String pageToken, int size) {
+        OrderCursor cursor = OrderCursor.decode(pageToken);
+
+        String jpql = "select o from Order o join fetch o.member m";
+        List<String> conditions = OrderSearchPredicates.of(orderSearch);
+        if (cursor != null) {
+            conditions.add("(o.orderDate < :cursorDate or (o.orderDate = :cursorDate and o.id < :cursorId))");
+        }
+        if (!conditions.isEmpty()) {
+            jpql += " where " + String.join(" and ", conditions);
+        }
+        jpql += " order by o.orderDate desc, o.id desc";
+
+        TypedQuery<Order> query = em.createQuery(jpql, Order.class)
+                .setMaxResults(size + 1);       // 한 건 더 읽어서 다음 페이지가 있는지 확인
+        OrderSearchPredicates.bind(query, orderSearch);
+        if (cursor != null) {
+            query.setParameter("cursorDate", cursor.getOrderDate());
+            query.setParameter("cursorId", cursor.getOrderId());
+        }
+
+        List<Order> orders = query.getResultList();
+        if (orders.size() <= size) {
+            return new OrderPage(orders, null);
+        }
+
+        List<Order> page = orders.subList(0, size);
+        Order last = page.get(size - 1);
+        return new OrderPage(page, new OrderCursor(last.getOrderDate(), last.getId()).encode());
+    }
+
+    /*
+     * 주문 + 주문상품 전체를 한 줄씩 흘려보내기 (내보내기용)
+     *
+     * getResultList()는 결과를 전부 리스트로 만들고 엔티티면 영속성 컨텍스트에도 다 쌓아서, 수백만 건이면 힙이 터짐.
+     * 여기서는
+     *  - 엔티티 대신 필요한 컬럼만 스칼라로 조회 -> 영속성 컨텍스트에 아무것도 안 쌓임 (그래서 중간에 clear 할 것도 없음)
+     *  - 앞으로만 가는 커서(ScrollMode.FORWARD_ONLY) + JDBC fetch size -> 드라이버가 fetchSize 만큼씩만 가져옴
+     *  - 한 줄 읽을 때마다 바로 rowConsumer에 넘김 -> 메모리에 남는 건 지금 줄 하나
+     * 트랜잭션(커넥션)은 다 흘려보낼 때까지 열려 있어야 함.
+     * */
+    public void streamOrderLines(OrderSearch orderSearch, int fetchSize, Consumer<OrderExportRow> rowConsumer) {
+        List<String> predicates = OrderSearchPredicates.of(orderSearch);
+        String jpql = "select o.id, o.orderDate, o.status, m.name, oi.id, i.name, oi.orderPrice, oi.count" +
+                " from OrderItem oi" +
+                " join oi.order o" +
+                " join o.member m" +
+                " join oi.item i";
+        if (!predicates.isEmpty()) {
+            jpql += " where " + String.join(" and ", predicates);
+        }
+        jpql += " order by o.id, oi.id";
+
+        TypedQuery<Object[]> query = em.createQuery(jpql, Object[].class);
+        OrderSearchPredicates.bind(query, orderSearch);
+
+        ScrollableResults results = query.unwrap(org.hibernate.query.Query.class)
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .scroll(ScrollMode.FORWARD_ONLY);
+        try {
+            while (results.next()) {
+                Object[] row = results.get();
+                rowConsumer.accept(new OrderExportRow(
+                        (Long) row[0], (LocalDateTime) row[1], (OrderStatus) row[2], (String) row[3],
+                        (Long) row[4], (String) row[5], (Integer) row[6], (Integer) row[7]));
+            }
+        } finally {
+            results.close();
+        }
+    }
+
+    /*
+     * 저장된 주문 금액(totalPrice)과 주문상품 합계가 어긋난 주문 찾기 (OrderTotalPriceChecker)
+     * 취소된 주문은 0이어야 맞음. 한 번에 전체를 group by 하지 않게 id 구간 (fromId, toId] 단위로
+     * 결과: [order_id, 저장된 금액, 주문상품 합계]
+     * */
+    public List<Object[]> findTotalPriceMismatches(Long fromIdExclusive, Long toIdInclusive) {
+        return em.createQuery(
+                        "select o.id, o.totalPrice, coalesce(sum(oi.orderPrice * oi.count), 0)" +
+                                " from Order o" +
+                                " left join o.orderItems oi" +
+                                " where o.id > :fromId and o.id <= :toId" +
+                                " group by o.id, o.totalPrice, o.status" +
+                                " having o.totalPrice <> case when o.status = :canceled then 0" +
+                                " else coalesce(sum(oi.orderPrice * oi.count), 0) end" +
+                                " order by o.id", Object[].class)
+                .setParameter("fromId", fromIdExclusive)
+                .setParameter("toId", toIdInclusive)
+                .setParameter("canceled", OrderStatus.CANCEL)
+                .getResultList();
+    }
+
+    /*
+     * 주문 id 범위 [최소, 최대]. 주문이 없으면 null
+     * */
+    public Long[] findIdRange() {
+        Object[] range = em.createQuery("select min(o.id), max(o.id) from Order o", Object[].class)
+                .getSingleResult();
+        if (range[0] == null) {
+            return null;
+        }
+        return new Long[]{(Long) range[0], (Long) range[1]};
+    }
+
     /*
      * 방법 3: Querydsl로 처리
      * 실무에서 쓰는 방법
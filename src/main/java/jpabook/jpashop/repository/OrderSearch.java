@@ -4,10 +4,29 @@ import jpabook.jpashop.domain.OrderStatus;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.Collection;
+
 @Getter
 @Setter
 public class OrderSearch {
 
     private String memberName;          // 회원 이름
     private OrderStatus orderStatus;    // 주문 상태 [ORDER, CANCEL]
+    private Integer minTotalPrice;      // 주문 금액 이상
+    private Integer maxTotalPrice;      // 주문 금액 이하
+    private OrderSort sort;             // 정렬 (없으면 정렬 안 함)
+    private Collection<Long> memberIds; // 회원 id 후보 (회원 이름 검색을 MemberNameIndex로 바꾼 결과. 비어 있으면 안 됨)
+
+    /*
+     * 회원 이름 조건 대신 회원 id 후보로 검색하는 복사본 (원래 객체는 화면 폼에도 쓰이니까 안 바꿈)
+     * */
+    public OrderSearch withMemberIds(Collection<Long> memberIds) {
+        OrderSearch copy = new OrderSearch();
+        copy.setOrderStatus(orderStatus);
+        copy.setMinTotalPrice(minTotalPrice);
+        copy.setMaxTotalPrice(maxTotalPrice);
+        copy.setSort(sort);
+        copy.setMemberIds(memberIds);
+        return copy;
+    }
 }
@@ -0,0 +1,91 @@
+package jpabook.jpashop.repository;
+
+import org.springframework.util.StringUtils;
+
+import javax.persistence.Query;
+
+/*
+ * OrderSearch의 검색 조건 하나하나 (JPQL where 절 조각 + 파라미터 바인딩)
+ * OrderSearchQueryTemplates가 조건 조합마다 쿼리를 미리 만들어 둘 때 씀.
+ * 조건이 늘어나면 여기에 상수만 추가하면 됨.
+ * */
+enum OrderSearchCondition {
+
+    STATUS("o.status = :status") {
+        @Override
+        boolean isPresent(OrderSearch orderSearch) {
+            return orderSearch.getOrderStatus() != null;
+        }
+
+        @Override
+        void bind(Query query, OrderSearch orderSearch) {
+            query.setParameter("status", orderSearch.getOrderStatus());
+        }
+    },
+
+    MEMBER_NAME("m.name like :name") {
+        @Override
+        boolean isPresent(OrderSearch orderSearch) {
+            return StringUtils.hasText(orderSearch.getMemberName());
+        }
+
+        @Override
+        void bind(Query query, OrderSearch orderSearch) {
+            query.setParameter("name", "%" + orderSearch.getMemberName() + "%");
+        }
+    },
+
+    MEMBER_IDS("o.member.id in :memberIds") {
+        @Override
+        boolean isPresent(OrderSearch orderSearch) {
+            return orderSearch.getMemberIds() != null;
+        }
+
+        @Override
+        void bind(Query query, OrderSearch orderSearch) {
+            query.setParameter("memberIds", orderSearch.getMemberIds());
+        }
+    },
+
+    MIN_TOTAL_PRICE("o.totalPrice >= :minTotalPrice") {
+        @Override
+        boolean isPresent(OrderSearch orderSearch) {
+            return orderSearch.getMinTotalPrice() != null;
+        }
+
+        @Override
+        void bind(Query query, OrderSearch orderSearch) {
+            query.setParameter("minTotalPrice", orderSearch.getMinTotalPrice());
+        }
+    },
+
+    MAX_TOTAL_PRICE("o.totalPrice <= :maxTotalPrice") {
+        @Override
+        boolean isPresent(OrderSearch orderSearch) {
+            return orderSearch.getMaxTotalPrice() != null;
+        }
+
+        @Override
+        void bind(Query query, OrderSearch orderSearch) {
+            query.setParameter("maxTotalPrice", orderSearch.getMaxTotalPrice());
+        }
+    };
+
+    private final String predicate;
+
+    OrderSearchCondition(String predicate) {
+        this.predicate = predicate;
+    }
+
+    String predicate() {
+        return predicate;
+    }
+
+    int bit() {
+        return 1 << ordinal();
+    }
+
+    abstract boolean isPresent(OrderSearch orderSearch);
+
+    abstract void bind(Query query, OrderSearch orderSearch);
+}
@@ -0,0 +1,36 @@
+package jpabook.jpashop.repository;
+
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * OrderSearch로 JPQL where 절을 만들 때 쓰는 공통 도우미 (OrderRepository, OrderQueryRepository)
+ * 조건 목록은 OrderSearchCondition 하나뿐이라 조건이 늘어나도 조회마다 따로 고칠 필요 없음.
+ * 주문은 o, 회원은 m 으로 별칭을 붙여야 함.
+ * */
+public final class OrderSearchPredicates {
+
+    private OrderSearchPredicates() {
+    }
+
+    // 값이 있는 조건의 where 절 조각 (and로 이어 붙이면 됨)
+    public static List<String> of(OrderSearch orderSearch) {
+        List<String> predicates = new ArrayList<>();
+        for (OrderSearchCondition condition : OrderSearchCondition.values()) {
+            if (condition.isPresent(orderSearch)) {
+                predicates.add(condition.predicate());
+            }
+        }
+        return predicates;
+    }
+
+    // of()로 만든 조건의 파라미터 바인딩
+    public static void bind(Query query, OrderSearch orderSearch) {
+        for (OrderSearchCondition condition : OrderSearchCondition.values()) {
+            if (condition.isPresent(orderSearch)) {
+                condition.bind(query, orderSearch);
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.Order;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * 주문 검색 - 조건 조합별로 미리 만들어 둔 쿼리
+ *
+ * findAllByString은 호출마다 JPQL 문자열을 새로 이어 붙이고, findAllByCriteria는 매번 Criteria 트리를 만들어서 JPQL로 렌더링함.
+ * 그런데 OrderSearch 조건은 "값이 있냐 없냐" 조합이 몇 개 안 됨 (조건 n개면 2^n개, 정렬까지 치면 x (OrderSort 개수 + 1)).
+ * 그래서 시작할 때 조합마다 JPQL을 만들어서 named query로 등록해 둠 (이때 파싱, 검증, 쿼리 플랜 캐시까지 끝남).
+ * 요청마다 하는 일은 조합 번호(bitmask) 계산 -> 이름으로 꺼내기 -> 파라미터 바인딩이 전부.
+ * */
+@Repository
+@RequiredArgsConstructor
+public class OrderSearchQueryTemplates {
+
+    private static final String QUERY_NAME_PREFIX = "Order.search.";
+    private static final int MAX_RESULTS = 1000;
+
+    private final EntityManager em;
+    private final EntityManagerFactory emf;
+
+    @PostConstruct
+    public void registerTemplates() {
+        EntityManager templateEm = emf.createEntityManager();
+        try {
+            int combinations = 1 << OrderSearchCondition.values().length;
+            for (int mask = 0; mask < combinations; mask++) {
+                emf.addNamedQuery(queryName(mask, null), templateEm.createQuery(buildJpql(mask, null), Order.class));
+                for (OrderSort sort : OrderSort.values()) {
+                    emf.addNamedQuery(queryName(mask, sort), templateEm.createQuery(buildJpql(mask, sort), Order.class));
+                }
+            }
+        } finally {
+            templateEm.close();
+        }
+    }
+
+    public List<Order> findAll(OrderSearch orderSearch) {
+        int mask = 0;
+        for (OrderSearchCondition condition : OrderSearchCondition.values()) {
+            if (condition.isPresent(orderSearch)) {
+                mask |= condition.bit();
+            }
+        }
+
+        TypedQuery<Order> query = em.createNamedQuery(queryName(mask, orderSearch.getSort()), Order.class)
+                .setMaxResults(MAX_RESULTS);
+        for (OrderSearchCondition condition : OrderSearchCondition.values()) {
+            if ((mask & condition.bit()) != 0) {
+                condition.bind(query, orderSearch);
+            }
+        }
+        return query.getResultList();
+    }
+
+    private static String queryName(int mask, OrderSort sort) {
+        return QUERY_NAME_PREFIX + mask + (sort == null ? "" : "." + sort.name());
+    }
+
+    private static String buildJpql(int mask, OrderSort sort) {
+        List<String> predicates = new ArrayList<>();
+        for (OrderSearchCondition condition : OrderSearchCondition.values()) {
+            if ((mask & condition.bit()) != 0) {
+                predicates.add(condition.predicate());
+            }
+        }
+
+        String jpql = "select o from Order o join o.member m";
+        if (!predicates.isEmpty()) {
+            jpql += " where " + String.join(" and ", predicates);
+        }
+        if (sort != null) {
+            jpql += " order by " + sort.orderBy();
+        }
+        return jpql;
+    }
+}
@@ -0,0 +1,21 @@
+package jpabook.jpashop.repository;
+
+/*
+ * 주문 검색 정렬 (OrderSearch.sort, 없으면 정렬 안 함)
+ * 금액이 같은 주문끼리도 순서가 매번 같도록 order_id를 뒤에 붙임
+ * */
+public enum OrderSort {
+
+    TOTAL_PRICE_DESC("o.totalPrice desc, o.id desc"),
+    TOTAL_PRICE_ASC("o.totalPrice asc, o.id asc");
+
+    private final String orderBy;
+
+    OrderSort(String orderBy) {
+        this.orderBy = orderBy;
+    }
+
+    public String orderBy() {
+        return orderBy;
+    }
+}
@@ -0,0 +1,203 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.sales.ItemDailySales;
+import jpabook.jpashop.domain.sales.MemberMonthlySales;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * 매출 집계 테이블 (item_daily_sales, member_monthly_sales)
+ * 증감분 반영, 재구축은 JDBC로 바로 (엔티티, 변경 감지 X). 조회만 JPQL
+ * */
+@Repository
+@RequiredArgsConstructor
+public class SalesRollupRepository {
+
+    private static final String UNIQUE_VIOLATION = "23505";
+    private static final int MAX_RESULTS = 1000;
+
+    private final EntityManager em;
+    private final JdbcTemplate jdbcTemplate;
+
+    /*
+     * 상품별 일 매출에 증감분 더하기 (jdbc batch, 지금 트랜잭션 안에서)
+     * deltas: key -> [주문 수, 수량, 금액]
+     * */
+    public void addItemDailySales(Map<ItemDailySales.Key, long[]> deltas) {
+        List<ItemDailySales.Key> keys = new ArrayList<>(deltas.keySet());
+        List<Object[]> updateArgs = new ArrayList<>(keys.size());
+        List<Object[]> insertArgs = new ArrayList<>(keys.size());
+        for (ItemDailySales.Key key : keys) {
+            long[] delta = deltas.get(key);
+            updateArgs.add(new Object[]{delta[0], delta[1], delta[2], key.getItemId(), Date.valueOf(key.getSalesDate())});
+            insertArgs.add(new Object[]{key.getItemId(), Date.valueOf(key.getSalesDate())});
+        }
+        upsert("update item_daily_sales set order_count = order_count + ?, quantity = quantity + ?, amount = amount + ?" +
+                        " where item_id = ? and sales_date = ?",
+                "insert into item_daily_sales (item_id, sales_date, order_count, quantity, amount) values (?, ?, 0, 0, 0)",
+                updateArgs, insertArgs);
+    }
+
+    /*
+     * 회원별 월 매출에 증감분 더하기
+     * deltas: key -> [주문 수, 금액]
+     * */
+    public void addMemberMonthlySales(Map<MemberMonthlySales.Key, long[]> deltas) {
+        List<MemberMonthlySales.Key> keys = new ArrayList<>(deltas.keySet());
+        List<Object[]> updateArgs = new ArrayList<>(keys.size());
+        List<Object[]> insertArgs = new ArrayList<>(keys.size());
+        for (MemberMonthlySales.Key key : keys) {
+            long[] delta = deltas.get(key);
+            updateArgs.add(new Object[]{delta[0], delta[1], key.getMemberId(), Date.valueOf(key.getSalesMonth())});
+            insertArgs.add(new Object[]{key.getMemberId(), Date.valueOf(key.getSalesMonth())});
+        }
+        upsert("update member_monthly_sales set order_count = order_count + ?, amount = amount + ?" +
+                        " where member_id = ? and sales_month = ?",
+                "insert into member_monthly_sales (member_id, sales_month, order_count, amount) values (?, ?, 0, 0)",
+                updateArgs, insertArgs);
+    }
+
+    /*
+     * update 먼저 -> 없던 row(영향받은 row 0)만 0으로 insert 하고 -> 그 row만 다시 update
+     *
+     * 같은 날 같은 상품의 첫 주문이 동시에 들어오면 둘 다 insert를 시도해서 한쪽은 unique 위반이 남.
+     * 그걸로 주문 전체가 실패하면 안 되니까 insert마다 savepoint를 잡고, 위반이면 그 insert만 되돌리고 update로 진행
+     * (먼저 insert한 트랜잭션이 커밋될 때까지 기다렸다가 위반이 나기 때문에 다시 update 하면 그 row가 보임).
+     * */
+    private void upsert(String updateSql, String insertSql, List<Object[]> updateArgs, List<Object[]> insertArgs) {
+        int[] updated = jdbcTemplate.batchUpdate(updateSql, updateArgs);
+
+        List<Object[]> missingUpdates = new ArrayList<>();
+        List<Object[]> missingRows = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missingUpdates.add(updateArgs.get(i));
+                missingRows.add(insertArgs.get(i));
+            }
+        }
+        if (missingRows.isEmpty()) {
+            return;
+        }
+
+        insertIfAbsent(insertSql, missingRows);
+        jdbcTemplate.batchUpdate(updateSql, missingUpdates);
+    }
+
+    private void insertIfAbsent(String insertSql, List<Object[]> rows) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(insertSql)) {
+                for (Object[] row : rows) {
+                    statement.setObject(1, row[0]);
+                    statement.setObject(2, row[1]);
+                    Savepoint savepoint = connection.setSavepoint();
+                    try {
+                        statement.executeUpdate();
+                    } catch (SQLException e) {
+                        if (!UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                            throw e;
+                        }
+                        connection.rollback(savepoint);        // 다른 트랜잭션이 먼저 만들었음
+                    }
+                    connection.releaseSavepoint(savepoint);
+                }
+            }
+            return null;
+        });
+    }
+
+    /*
+     * 재구축: 집계 테이블 비우기
+     * */
+    public void deleteAll() {
+        jdbcTemplate.update("delete from item_daily_sales");
+        jdbcTemplate.update("delete from member_monthly_sales");
+    }
+
+    /*
+     * 주문 날짜 범위 [최소, 최대]. 주문이 없으면 null
+     * */
+    public LocalDateTime[] findOrderDateRange() {
+        return jdbcTemplate.queryForObject("select min(order_date), max(order_date) from orders",
+                (rs, rowNum) -> rs.getObject(1) == null ? null : new LocalDateTime[]{
+                        rs.getObject(1, LocalDateTime.class), rs.getObject(2, LocalDateTime.class)});
+    }
+
+    /*
+     * 재구축: 한 달 치 주문 [month, month + 1달)을 orders + order_item에서 다시 집계해서 insert
+     * 달마다 집계 row가 겹치지 않기 때문에 (일 단위, 월 단위 모두) 달끼리는 따로 병렬로 돌려도 됨
+     * */
+    public void insertMonthFromOrders(LocalDate month) {
+        Timestamp from = Timestamp.valueOf(month.atStartOfDay());
+        Timestamp to = Timestamp.valueOf(month.plusMonths(1).atStartOfDay());
+        jdbcTemplate.update(
+                "insert into item_daily_sales (item_id, sales_date, order_count, quantity, amount)" +
+                        " select oi.item_id, cast(o.order_date as date), count(distinct o.order_id), sum(oi.count)," +
+                        " sum(cast(oi.order_price as bigint) * oi.count)" +
+                        " from orders o join order_item oi on oi.order_id = o.order_id" +
+                        " where o.status = 'ORDER' and o.order_date >= ? and o.order_date < ?" +
+                        " group by oi.item_id, cast(o.order_date as date)",
+                from, to);
+        jdbcTemplate.update(
+                "insert into member_monthly_sales (member_id, sales_month, order_count, amount)" +
+                        " select o.member_id, cast(? as date), count(*), sum(cast(o.total_price as bigint))" +
+                        " from orders o" +
+                        " where o.status = 'ORDER' and o.order_date >= ? and o.order_date < ?" +
+                        " group by o.member_id",
+                Date.valueOf(month), from, to);
+    }
+
+    /*
+     * 상품별 일 매출 (itemId가 없으면 전체 상품)
+     * */
+    public List<ItemDailySales> findItemDailySales(Long itemId, LocalDate from, LocalDate to) {
+        String jpql = "select s from ItemDailySales s where s.salesDate between :from and :to";
+        if (itemId != null) {
+            jpql += " and s.itemId = :itemId";
+        }
+        jpql += " order by s.salesDate, s.itemId";
+
+        TypedQuery<ItemDailySales> query = em.createQuery(jpql, ItemDailySales.class)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setMaxResults(MAX_RESULTS);
+        if (itemId != null) {
+            query.setParameter("itemId", itemId);
+        }
+        return query.getResultList();
+    }
+
+    /*
+     * 회원별 월 매출 (memberId가 없으면 전체 회원). from, to는 그 달 1일
+     * */
+    public List<MemberMonthlySales> findMemberMonthlySales(Long memberId, LocalDate fromMonth, LocalDate toMonth) {
+        String jpql = "select s from MemberMonthlySales s where s.salesMonth between :from and :to";
+        if (memberId != null) {
+            jpql += " and s.memberId = :memberId";
+        }
+        jpql += " order by s.salesMonth, s.memberId";
+
+        TypedQuery<MemberMonthlySales> query = em.createQuery(jpql, MemberMonthlySales.class)
+                .setParameter("from", fromMonth)
+                .setParameter("to", toMonth)
+                .setMaxResults(MAX_RESULTS);
+        if (memberId != null) {
+            query.setParameter("memberId", memberId);
+        }
+        return query.getResultList();
+    }
+}
@@ -0,0 +1,86 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.StockJournal;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Repository
+@RequiredArgsConstructor
+public class StockJournalRepository {
+
+    private final EntityManager em;
+    private final JdbcTemplate jdbcTemplate;   // flush는 엔티티가 필요 없어서 JDBC로 바로 (영속성 컨텍스트, 변경 감지 X)
+    private final ItemCacheEvictor itemCacheEvictor;
+
+    /*
+     * 장부 기록 (주문 트랜잭션 안에서 insert)
+     * */
+    public void save(StockJournal stockJournal) {
+        em.persist(stockJournal);
+    }
+
+    /*
+     * 사용 가능한 재고 = item.stock_quantity + 아직 반영 안 된 장부 합계
+     * flush가 "item 반영 + 장부 삭제"를 한 트랜잭션으로 하기 때문에 한 문장으로 읽으면 중간 상태가 안 보임.
+     * 상품이 없으면 null
+     * */
+    public Long findAvailableStock(Long itemId) {
+        List<Long> result = jdbcTemplate.queryForList(
+                "select i.stock_quantity + coalesce((select sum(j.delta) from stock_journal j where j.item_id = i.item_id), 0)" +
+                        " from item i where i.item_id = ?",
+                Long.class, itemId);
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    /*
+     * item에 반영된 재고 (장부 제외). 2차 캐시를 거치지 않고 DB에서 바로 읽음
+     * 상품이 없으면 null
+     * */
+    public Long findItemStock(Long itemId) {
+        List<Long> result = jdbcTemplate.queryForList(
+                "select stock_quantity from item where item_id = ?", Long.class, itemId);
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    /*
+     * 반영 대기 중인 장부 (오래된 순서로 limit 건) -> [stock_journal_id, item_id, delta]
+     * */
+    public List<long[]> findPending(int limit) {
+        return jdbcTemplate.query(
+                "select stock_journal_id, item_id, delta from stock_journal order by stock_journal_id limit ?",
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3)},
+                limit);
+    }
+
+    /*
+     * 상품별로 합친 변화량을 item에 반영 (jdbc batch update)
+     * 다른 곳에서 엔티티로 읽어 둔 Item이 충돌을 알 수 있게 version도 올림
+     * JDBC라 hibernate가 모르는 update -> 반영한 상품은 2차 캐시에서 지움
+     * */
+    public void applyToItems(Map<Long, Long> deltaByItemId) {
+        List<Object[]> batchArgs = deltaByItemId.entrySet().stream()
+                .map(entry -> new Object[]{entry.getValue(), entry.getKey()})
+                .collect(Collectors.toList());
+        jdbcTemplate.batchUpdate(
+                "update item set stock_quantity = stock_quantity + ?, version = version + 1 where item_id = ?",
+                batchArgs);
+        itemCacheEvictor.evictAll(deltaByItemId.keySet());
+    }
+
+    /*
+     * 반영한 장부 삭제 (반영과 같은 트랜잭션에서)
+     * 읽어 온 id만 지워야 그 사이 커밋된 장부를 반영 없이 지우는 일이 없음
+     * */
+    public void deleteAll(List<Long> stockJournalIds) {
+        List<Object[]> batchArgs = stockJournalIds.stream()
+                .map(id -> new Object[]{id})
+                .collect(Collectors.toList());
+        jdbcTemplate.batchUpdate("delete from stock_journal where stock_journal_id = ?", batchArgs);
+    }
+}
@@ -0,0 +1,26 @@
+package jpabook.jpashop.repository.item.query;
+
+import lombok.Getter;
+
+/*
+ * 앨범 검색 결과 (아티스트). 엔티티를 안 거치고 JPQL에서 바로 new
+ * */
+@Getter
+public class CatalogAlbumQueryDto {
+
+    private final Long itemId;
+    private final String name;
+    private final int price;
+    private final int stockQuantity;
+    private final String artist;
+    private final String etc;
+
+    public CatalogAlbumQueryDto(Long itemId, String name, int price, int stockQuantity, String artist, String etc) {
+        this.itemId = itemId;
+        this.name = name;
+        this.price = price;
+        this.stockQuantity = stockQuantity;
+        this.artist = artist;
+        this.etc = etc;
+    }
+}
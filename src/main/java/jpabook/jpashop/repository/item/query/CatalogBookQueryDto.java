@@ -0,0 +1,26 @@
+package jpabook.jpashop.repository.item.query;
+
+import lombok.Getter;
+
+/*
+ * 도서 검색 결과 (저자, ISBN). 엔티티를 안 거치고 JPQL에서 바로 new
+ * */
+@Getter
+public class CatalogBookQueryDto {
+
+    private final Long itemId;
+    private final String name;
+    private final int price;
+    private final int stockQuantity;
+    private final String author;
+    private final String isbn;
+
+    public CatalogBookQueryDto(Long itemId, String name, int price, int stockQuantity, String author, String isbn) {
+        this.itemId = itemId;
+        this.name = name;
+        this.price = price;
+        this.stockQuantity = stockQuantity;
+        this.author = author;
+        this.isbn = isbn;
+    }
+}
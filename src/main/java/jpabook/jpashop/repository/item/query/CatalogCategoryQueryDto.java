@@ -0,0 +1,19 @@
+package jpabook.jpashop.repository.item.query;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+
+@Getter
+public class CatalogCategoryQueryDto {
+
+    @JsonIgnore
+    private final Long itemId;      // 어느 상품의 카테고리인지 (CatalogItemQueryDto에 붙일 때만 씀)
+    private final Long categoryId;
+    private final String name;
+
+    public CatalogCategoryQueryDto(Long itemId, Long categoryId, String name) {
+        this.itemId = itemId;
+        this.categoryId = categoryId;
+        this.name = name;
+    }
+}
@@ -0,0 +1,29 @@
+package jpabook.jpashop.repository.item.query;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * 상품 목록(카탈로그) 화면용 DTO
+ * */
+@Getter
+public class CatalogItemQueryDto {
+
+    private final Long itemId;
+    private final String name;
+    private final int price;
+    private final int stockQuantity;
+
+    @Setter
+    private List<CatalogCategoryQueryDto> categories = new ArrayList<>();
+
+    public CatalogItemQueryDto(Long itemId, String name, int price, int stockQuantity) {
+        this.itemId = itemId;
+        this.name = name;
+        this.price = price;
+        this.stockQuantity = stockQuantity;
+    }
+}
@@ -0,0 +1,26 @@
+package jpabook.jpashop.repository.item.query;
+
+import lombok.Getter;
+
+/*
+ * 영화 검색 결과 (감독, 배우). 엔티티를 안 거치고 JPQL에서 바로 new
+ * */
+@Getter
+public class CatalogMovieQueryDto {
+
+    private final Long itemId;
+    private final String name;
+    private final int price;
+    private final int stockQuantity;
+    private final String director;
+    private final String actor;
+
+    public CatalogMovieQueryDto(Long itemId, String name, int price, int stockQuantity, String director, String actor) {
+        this.itemId = itemId;
+        this.name = name;
+        this.price = price;
+        this.stockQuantity = stockQuantity;
+        this.director = director;
+        this.actor = actor;
+    }
+}
@@ -0,0 +1,140 @@
+package jpabook.jpashop.repository.item.query;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/*
+ * 카탈로그 화면 조회 전용 (상품 + 상품이 속한 카테고리)
+ *
+ * Item 엔티티를 가져와서 item.getCategories()를 건드리면 상품마다 category_item join 쿼리가 하나씩 나감.
+ * 여기서는 페이지 크기와 상관없이 쿼리 2번:
+ *  1) 상품 한 페이지 -> CatalogItemQueryDto
+ *  2) 1)의 상품 id들로 category_item + category를 in 쿼리 한 번에 -> 메모리에서 상품별로 붙임
+ * (컬렉션을 fetch join 하면 row가 늘어나서 페이징을 DB에서 못 함)
+ * */
+@Repository
+@RequiredArgsConstructor
+public class CatalogQueryRepository {
+
+    private final EntityManager em;
+
+    public List<CatalogItemQueryDto> findCatalogPage(int offset, int limit) {
+        List<CatalogItemQueryDto> items = em.createQuery(
+                        "select new jpabook.jpashop.repository.item.query.CatalogItemQueryDto(i.id, i.name, i.price, i.stockQuantity)" +
+                                " from Item i" +
+                                " order by i.id", CatalogItemQueryDto.class)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+        if (items.isEmpty()) {
+            return items;
+        }
+
+        List<Long> itemIds = items.stream()
+                .map(CatalogItemQueryDto::getItemId)
+                .collect(Collectors.toList());
+        Map<Long, List<CatalogCategoryQueryDto>> categoryMap = findCategoryMap(itemIds);
+
+        items.forEach(i -> i.setCategories(categoryMap.getOrDefault(i.getItemId(), new ArrayList<>())));
+        return items;
+    }
+
+    private Map<Long, List<CatalogCategoryQueryDto>> findCategoryMap(List<Long> itemIds) {
+        List<CatalogCategoryQueryDto> categories = em.createQuery(
+                        "select new jpabook.jpashop.repository.item.query.CatalogCategoryQueryDto(i.id, c.id, c.name)" +
+                                " from Category c" +
+                                " join c.items i" +
+                                " where i.id in :itemIds" +
+                                " order by c.id", CatalogCategoryQueryDto.class)
+                .setParameter("itemIds", itemIds)
+                .getResultList();
+
+        return categories.stream()
+                .collect(Collectors.groupingBy(CatalogCategoryQueryDto::getItemId));
+    }
+
+    /*
+     * 상품 종류별 검색 (도서/앨범/영화)
+     *
+     * 예전에는 findAll()로 상품을 전부 엔티티로 읽어서 메모리에서 걸렀음.
+     * from Book/Album/Movie로 조회하면 hibernate가 dtype 조건을 붙이니까
+     * (dtype, 검색 컬럼, item_id) 인덱스(Item의 idx_item_dtype_*)로 범위만 읽고 정렬도 인덱스 순서 그대로.
+     * 결과는 DTO로 바로 -> 엔티티 생성, 영속성 컨텍스트, 2차 캐시 적재 X
+     * 문자열 조건은 앞부분 일치 (like 'xxx%'만 인덱스를 탈 수 있음), ISBN은 정확히 일치.
+     * */
+    public List<CatalogBookQueryDto> searchBooks(String author, String isbn, int offset, int limit) {
+        List<String> conditions = new ArrayList<>();
+        if (StringUtils.hasText(author)) {
+            conditions.add("b.author like :author escape '\\'");
+        }
+        if (StringUtils.hasText(isbn)) {
+            conditions.add("b.isbn = :isbn");
+        }
+        String jpql = "select new jpabook.jpashop.repository.item.query.CatalogBookQueryDto(b.id, b.name, b.price, b.stockQuantity, b.author, b.isbn)" +
+                " from Book b" +
+                where(conditions) +
+                " order by b.author, b.id";
+
+        TypedQuery<CatalogBookQueryDto> query = em.createQuery(jpql, CatalogBookQueryDto.class)
+                .setFirstResult(offset)
+                .setMaxResults(limit);
+        if (StringUtils.hasText(author)) {
+            query.setParameter("author", startsWith(author));
+        }
+        if (StringUtils.hasText(isbn)) {
+            query.setParameter("isbn", isbn);
+        }
+        return query.getResultList();
+    }
+
+    public List<CatalogAlbumQueryDto> searchAlbums(String artist, int offset, int limit) {
+        boolean byArtist = StringUtils.hasText(artist);
+        String jpql = "select new jpabook.jpashop.repository.item.query.CatalogAlbumQueryDto(a.id, a.name, a.price, a.stockQuantity, a.artist, a.etc)" +
+                " from Album a" +
+                (byArtist ? " where a.artist like :artist escape '\\'" : "") +
+                " order by a.artist, a.id";
+
+        TypedQuery<CatalogAlbumQueryDto> query = em.createQuery(jpql, CatalogAlbumQueryDto.class)
+                .setFirstResult(offset)
+                .setMaxResults(limit);
+        if (byArtist) {
+            query.setParameter("artist", startsWith(artist));
+        }
+        return query.getResultList();
+    }
+
+    public List<CatalogMovieQueryDto> searchMovies(String director, int offset, int limit) {
+        boolean byDirector = StringUtils.hasText(director);
+        String jpql = "select new jpabook.jpashop.repository.item.query.CatalogMovieQueryDto(m.id, m.name, m.price, m.stockQuantity, m.director, m.actor)" +
+                " from Movie m" +
+                (byDirector ? " where m.director like :director escape '\\'" : "") +
+                " order by m.director, m.id";
+
+        TypedQuery<CatalogMovieQueryDto> query = em.createQuery(jpql, CatalogMovieQueryDto.class)
+                .setFirstResult(offset)
+                .setMaxResults(limit);
+        if (byDirector) {
+            query.setParameter("director", startsWith(director));
+        }
+        return query.getResultList();
+    }
+
+    private static String where(List<String> conditions) {
+        return conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions);
+    }
+
+    // 앞부분 일치 패턴. 검색어에 들어있는 %, _는 와일드카드가 아니라 글자로
+    private static String startsWith(String text) {
+        return text.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+    }
+}
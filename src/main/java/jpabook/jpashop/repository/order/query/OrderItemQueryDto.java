@@ -0,0 +1,21 @@
+package jpabook.jpashop.repository.order.query;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+
+@Getter
+public class OrderItemQueryDto {
+
+    @JsonIgnore
+    private final Long orderId;     // 어느 주문의 상품인지 (OrderQueryDto에 붙일 때만 씀)
+    private final String itemName;
+    private final int orderPrice;
+    private final int count;
+
+    public OrderItemQueryDto(Long orderId, String itemName, int orderPrice, int count) {
+        this.orderId = orderId;
+        this.itemName = itemName;
+        this.orderPrice = orderPrice;
+        this.count = count;
+    }
+}
@@ -0,0 +1,36 @@
+package jpabook.jpashop.repository.order.query;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * 주문 목록 화면용 DTO (엔티티를 안 거치고 JPQL에서 바로 new)
+ * */
+@Getter
+public class OrderQueryDto {
+
+    private final Long orderId;
+    private final String name;              // 회원 이름
+    private final LocalDateTime orderDate;
+    private final OrderStatus orderStatus;
+    private final Address address;          // 배송지
+    private final int totalPrice;           // 주문 금액 (orders.total_price, 주문상품을 안 더해도 됨)
+
+    @Setter
+    private List<OrderItemQueryDto> orderItems = new ArrayList<>();
+
+    public OrderQueryDto(Long orderId, String name, LocalDateTime orderDate, OrderStatus orderStatus, Address address, int totalPrice) {
+        this.orderId = orderId;
+        this.name = name;
+        this.orderDate = orderDate;
+        this.orderStatus = orderStatus;
+        this.address = address;
+        this.totalPrice = totalPrice;
+    }
+}
@@ -0,0 +1,79 @@
+package jpabook.jpashop.repository.order.query;
+
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.OrderSearchPredicates;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/*
+ * 주문 목록 조회 전용 (화면에 맞춘 DTO 조회)
+ *
+ * findAllByCriteria로 Order 엔티티를 가져와서 화면에서 member, delivery, orderItems -> item을 건드리면
+ * 주문 1건마다 지연 로딩 쿼리가 추가로 나감 (N+1). 1000건이면 쿼리 수천 개.
+ *
+ * 여기서는 결과 건수와 상관없이 쿼리 2번:
+ *  1) 주문 + 회원 + 배송 (ToOne 관계는 join 해도 row 수가 안 늘어남) -> OrderQueryDto
+ *  2) 1)에서 나온 주문 id들로 주문상품 + 상품을 in 쿼리 한 번에 -> 메모리에서 주문별로 붙임
+ * */
+@Repository
+@RequiredArgsConstructor
+public class OrderQueryRepository {
+
+    private final EntityManager em;
+
+    public List<OrderQueryDto> findOrderList(OrderSearch orderSearch) {
+        List<OrderQueryDto> orders = findOrders(orderSearch);
+        if (orders.isEmpty()) {
+            return orders;
+        }
+
+        List<Long> orderIds = orders.stream()
+                .map(OrderQueryDto::getOrderId)
+                .collect(Collectors.toList());
+        Map<Long, List<OrderItemQueryDto>> orderItemMap = findOrderItemMap(orderIds);
+
+        orders.forEach(o -> o.setOrderItems(orderItemMap.getOrDefault(o.getOrderId(), new ArrayList<>())));
+        return orders;
+    }
+
+    /*
+     * 조건은 OrderRepository와 같은 것 (OrderSearchPredicates) -> 금액 조건, 회원 id 후보도 그대로 적용됨
+     * 최대 1000건만 가져오니까 정렬이 없으면 어떤 1000건이 올지 매번 다를 수 있음 -> 정렬이 없으면 최신 주문(order_id desc)부터
+     * */
+    private List<OrderQueryDto> findOrders(OrderSearch orderSearch) {
+        String jpql = "select new jpabook.jpashop.repository.order.query.OrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address, o.totalPrice)" +
+                " from Order o" +
+                " join o.member m" +
+                " join o.delivery d";
+        List<String> conditions = OrderSearchPredicates.of(orderSearch);
+        if (!conditions.isEmpty()) {
+            jpql += " where " + String.join(" and ", conditions);
+        }
+        jpql += " order by " + (orderSearch.getSort() != null ? orderSearch.getSort().orderBy() : "o.id desc");
+
+        TypedQuery<OrderQueryDto> query = em.createQuery(jpql, OrderQueryDto.class)
+                .setMaxResults(1000);       // findAllByCriteria와 동일하게 최대 1000건
+        OrderSearchPredicates.bind(query, orderSearch);
+        return query.getResultList();
+    }
+
+    private Map<Long, List<OrderItemQueryDto>> findOrderItemMap(List<Long> orderIds) {
+        List<OrderItemQueryDto> orderItems = em.createQuery(
+                        "select new jpabook.jpashop.repository.order.query.OrderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.count)" +
+                                " from OrderItem oi" +
+                                " join oi.item i" +
+                                " where oi.order.id in :orderIds", OrderItemQueryDto.class)
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+
+        return orderItems.stream()
+                .collect(Collectors.groupingBy(OrderItemQueryDto::getOrderId));
+    }
+}
@@ -0,0 +1,72 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class CategoryService {
+
+    private final CategoryRepository categoryRepository;
+
+    /*
+     * 카테고리 등록 (parentId가 null이면 최상위)
+     * path에 자기 id가 들어가서 persist(id 발급) 다음에 path를 채움 -> flush 때 insert 후 update 한 번 더
+     * */
+    @Transactional
+    public Long create(String name, Long parentId) {
+        Category category = new Category();
+        category.setName(name);
+        category.changeParent(parentId == null ? null : findCategory(parentId));
+
+        categoryRepository.save(category);
+        category.assignPath();
+        return category.getId();
+    }
+
+    /*
+     * 카테고리 이동 (newParentId가 null이면 최상위로)
+     * 하위 트리 path를 update 한 번으로 같이 바꿈
+     * */
+    @Transactional
+    public void move(Long categoryId, Long newParentId) {
+        Category category = findCategory(categoryId);
+        Category newParent = newParentId == null ? null : findCategory(newParentId);
+        if (newParent != null && category.isAncestorOf(newParent)) {
+            throw new IllegalArgumentException("자기 자신이나 하위 카테고리 밑으로는 옮길 수 없습니다. categoryId=" + categoryId);
+        }
+
+        category.changeParent(newParent);
+        String newPath = (newParent == null ? "/" : newParent.getPath()) + category.getId() + "/";
+        categoryRepository.movePath(category, newPath);     // 벌크 update 전에 parent 변경이 먼저 flush 됨
+    }
+
+    public Category findOne(Long categoryId) {
+        return categoryRepository.findOne(categoryId);
+    }
+
+    // 하위 카테고리 전체 (모든 깊이, 쿼리 한 번)
+    public List<Category> findDescendants(Long categoryId) {
+        return categoryRepository.findDescendants(findCategory(categoryId));
+    }
+
+    // 하위 트리에 속한 상품 전체 (쿼리 한 번)
+    public List<Item> findItemsInSubtree(Long categoryId) {
+        return categoryRepository.findItemsInSubtree(findCategory(categoryId));
+    }
+
+    private Category findCategory(Long categoryId) {
+        Category category = categoryRepository.findOne(categoryId);
+        if (category == null) {
+            throw new IllegalArgumentException("존재하지 않는 카테고리입니다. categoryId=" + categoryId);
+        }
+        return category;
+    }
+}
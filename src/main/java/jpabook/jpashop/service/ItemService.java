@@ -2,6 +2,11 @@ package jpabook.jpashop.service;
 
 import jpabook.jpashop.domain.item.Item;
 import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.repository.item.query.CatalogAlbumQueryDto;
+import jpabook.jpashop.repository.item.query.CatalogBookQueryDto;
+import jpabook.jpashop.repository.item.query.CatalogItemQueryDto;
+import jpabook.jpashop.repository.item.query.CatalogMovieQueryDto;
+import jpabook.jpashop.repository.item.query.CatalogQueryRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -14,9 +19,14 @@ import java.util.List;
 public class ItemService {
 
     private final ItemRepository itemRepository;
+    private final StockLedger stockLedger;
+    private final CatalogQueryRepository catalogQueryRepository;
 
     @Transactional
     public void saveItem(Item item) {
+        if (item.getId() != null) {
+            stockLedger.stockOverwritten(item.getId(), item.getStockQuantity());   // 재고를 직접 바꿨을 수 있으니 메모리 장부에도 반영
+        }
         itemRepository.save(item);
     }
 
@@ -28,4 +38,24 @@ public class ItemService {
         return itemRepository.findOne(itemId);
     }
 
+    // 카탈로그 한 페이지 (상품 + 카테고리, 페이지 크기와 상관없이 쿼리 2번)
+    public List<CatalogItemQueryDto> findCatalogPage(int offset, int limit) {
+        return catalogQueryRepository.findCatalogPage(offset, limit);
+    }
+
+    // 도서 검색 (저자 앞부분 일치, ISBN 일치)
+    public List<CatalogBookQueryDto> searchBooks(String author, String isbn, int offset, int limit) {
+        return catalogQueryRepository.searchBooks(author, isbn, offset, limit);
+    }
+
+    // 앨범 검색 (아티스트 앞부분 일치)
+    public List<CatalogAlbumQueryDto> searchAlbums(String artist, int offset, int limit) {
+        return catalogQueryRepository.searchAlbums(artist, offset, limit);
+    }
+
+    // 영화 검색 (감독 앞부분 일치)
+    public List<CatalogMovieQueryDto> searchMovies(String director, int offset, int limit) {
+        return catalogQueryRepository.searchMovies(director, offset, limit);
+    }
+
 }
@@ -0,0 +1,25 @@
+package jpabook.jpashop.service;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * 회원 일괄 가입 결과
+ * duplicateNames: 중복이라 건너뛴 이름 (파일 안에서 두 번 나왔거나 이미 가입된 이름)
+ * */
+@Getter
+public class MemberImportResult {
+
+    private int joinedCount;
+    private final List<String> duplicateNames = new ArrayList<>();
+
+    void addJoined(int count) {
+        joinedCount += count;
+    }
+
+    void addDuplicate(String name) {
+        duplicateNames.add(name);
+    }
+}
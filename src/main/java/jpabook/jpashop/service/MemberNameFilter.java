@@ -0,0 +1,127 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.repository.MemberRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/*
+ * 가입된 회원 이름 bloom filter
+ *
+ * 회원 가입 때마다 "같은 이름이 있는지" select를 날리는데, 대부분의 가입은 새 이름임.
+ * bloom filter는 "없음"이라고 하면 확실히 없고, "있을 수도 있음"일 때만 DB에 물어보면 됨
+ * -> 새 이름은 select 없이 바로 insert.
+ *
+ * - 시작할 때 DB의 이름을 전부 넣어 둠 (warmUp). 끝나기 전에는 항상 "있을 수도 있음" -> DB 조회
+ * - 서버를 여러 대 띄우면 다른 서버에서 가입한 이름은 모름 (= 틀린 "없음").
+ *   그래도 member.name unique 제약이 최후의 방어라서 중복 가입은 안 됨 (insert에서 걸림)
+ * - 지울 수는 없음. 탈퇴한 이름은 계속 "있을 수도 있음" -> DB 조회로 넘어갈 뿐 문제는 없음
+ * */
+@Slf4j
+@Component
+public class MemberNameFilter {
+
+    private final MemberRepository memberRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final AtomicLongArray bits;
+    private final long bitSize;
+    private final int hashCount;
+    private volatile boolean warmedUp;
+
+    public MemberNameFilter(MemberRepository memberRepository,
+                            PlatformTransactionManager transactionManager,
+                            MemberProperties memberProperties) {
+        this.memberRepository = memberRepository;
+        this.transactionManager = transactionManager;
+
+        // bit 수 m = -n ln p / (ln 2)^2, 해시 함수 수 k = m / n * ln 2
+        MemberProperties.NameFilter settings = memberProperties.getNameFilter();
+        long n = Math.max(1, settings.getExpectedInsertions());
+        double p = settings.getFalsePositiveProbability();
+        long m = Math.max(64, (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2))));
+        this.bits = new AtomicLongArray((int) ((m + 63) / 64));
+        this.bitSize = bits.length() * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+    }
+
+    /*
+     * false면 그 이름의 회원은 확실히 없음. true면 있을 수도 있음 (DB 확인 필요)
+     * */
+    public boolean mightContain(String name) {
+        if (!warmedUp || name == null) {
+            return true;
+        }
+        long hash = hash(name);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = bitIndex(h1 + i * h2);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void put(String name) {
+        if (name == null) {
+            return;
+        }
+        long hash = hash(name);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = bitIndex(h1 + i * h2);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    /*
+     * 시작할 때 가입된 이름을 전부 넣음 (이름만 stream으로 읽어서 엔티티는 안 만듦)
+     * */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        long[] count = {0};
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<String> names = memberRepository.streamAllNames()) {
+                names.forEach(name -> {
+                    put(name);
+                    count[0]++;
+                });
+            }
+        });
+        warmedUp = true;
+        log.info("member name filter warmed up. names={}, bits={}, hashes={}", count[0], bitSize, hashCount);
+    }
+
+    // 해시 하나(64bit FNV-1a)를 반으로 나눠 h1 + i * h2 로 k개를 만듦 (double hashing)
+    private long hash(String name) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < name.length(); i++) {
+            hash ^= name.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private long bitIndex(int combinedHash) {
+        return (combinedHash & Integer.MAX_VALUE) % bitSize;
+    }
+}
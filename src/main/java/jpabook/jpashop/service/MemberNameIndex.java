@@ -0,0 +1,117 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.repository.MemberRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/*
+ * 회원 이름 n-gram(3글자) 역색인 - 이름 부분 검색용
+ *
+ * 주문 검색의 회원 이름 조건은 like '%이름%'이라 B-tree 인덱스를 못 탐 -> 검색할 때마다 member 전체를 읽고 orders와 조인.
+ * 그래서 메모리에 "3글자 조각 -> 그 조각이 들어간 회원 id" 색인을 들고 있다가
+ * 검색어를 회원 id 후보로 바꿔서 orders.member_id in (...)으로 조회 (idx_orders_member).
+ *
+ * - 검색어의 조각 중 회원이 제일 적은 조각의 회원만 보고, 이름에 검색어가 정말 들어있는지 확인 -> 결과는 like와 같음 (대소문자 구분)
+ * - 검색어가 3글자보다 짧으면 조각이 없으니 메모리의 이름을 전부 훑음 (그래도 DB는 안 감)
+ * - 시작할 때 DB의 회원을 전부 넣어 둠 (warmUp). 끝나기 전에는 Optional.empty() -> 호출하는 쪽에서 like로
+ * - 서버를 여러 대 띄우면 다른 서버에서 가입한 회원은 모름 (MemberNameFilter와 같은 한계)
+ * */
+@Slf4j
+@Component
+public class MemberNameIndex {
+
+    private static final int GRAM = 3;
+
+    private final MemberRepository memberRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final MemberProperties memberProperties;
+
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();     // 조각 -> 회원 id
+    private final Map<Long, String> names = new ConcurrentHashMap<>();             // 회원 id -> 이름 (후보 확인용)
+    private volatile boolean warmedUp;
+
+    public MemberNameIndex(MemberRepository memberRepository,
+                           PlatformTransactionManager transactionManager,
+                           MemberProperties memberProperties) {
+        this.memberRepository = memberRepository;
+        this.transactionManager = transactionManager;
+        this.memberProperties = memberProperties;
+    }
+
+    public void put(Long memberId, String name) {
+        if (memberId == null || name == null) {
+            return;
+        }
+        names.put(memberId, name);
+        for (int i = 0; i + GRAM <= name.length(); i++) {
+            postings.computeIfAbsent(name.substring(i, i + GRAM), gram -> ConcurrentHashMap.newKeySet())
+                    .add(memberId);
+        }
+    }
+
+    /*
+     * 이름에 text가 들어간 회원 id
+     * 색인이 아직 준비 전이거나 후보가 maxCandidates명보다 많으면 Optional.empty() (in 쿼리보다 like가 나음)
+     * */
+    public Optional<Set<Long>> findIdsContaining(String text) {
+        if (!warmedUp || text == null) {
+            return Optional.empty();
+        }
+
+        Iterable<Long> candidates = text.length() < GRAM ? names.keySet() : smallestPosting(text);
+        int maxCandidates = memberProperties.getNameIndex().getMaxCandidates();
+        Set<Long> memberIds = new HashSet<>();
+        for (Long memberId : candidates) {
+            String name = names.get(memberId);
+            if (name != null && name.contains(text)) {
+                memberIds.add(memberId);
+                if (memberIds.size() > maxCandidates) {
+                    return Optional.empty();
+                }
+            }
+        }
+        return Optional.of(memberIds);
+    }
+
+    private Set<Long> smallestPosting(String text) {
+        Set<Long> smallest = null;
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            Set<Long> posting = postings.get(text.substring(i, i + GRAM));
+            if (posting == null) {
+                return Collections.emptySet();      // 이 조각이 들어간 이름이 없음 -> 결과 없음
+            }
+            if (smallest == null || posting.size() < smallest.size()) {
+                smallest = posting;
+            }
+        }
+        return smallest;
+    }
+
+    /*
+     * 시작할 때 가입된 회원을 전부 넣음 (id, 이름만 stream으로 읽어서 엔티티는 안 만듦)
+     * */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = memberRepository.streamAllIdsAndNames()) {
+                rows.forEach(row -> put((Long) row[0], (String) row[1]));
+            }
+        });
+        warmedUp = true;
+        log.info("member name index warmed up. members={}, grams={}", names.size(), postings.size());
+    }
+}
@@ -0,0 +1,40 @@
+package jpabook.jpashop.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/*
+ * 회원 관련 설정 (application.yml의 jpashop.member.*)
+ * */
+@Component
+@ConfigurationProperties(prefix = "jpashop.member")
+@Getter @Setter
+public class MemberProperties {
+
+    private final NameFilter nameFilter = new NameFilter();
+
+    private final NameIndex nameIndex = new NameIndex();
+
+    private int importChunkSize = 1000;     // 일괄 가입(joinAll) 때 중복 확인 in 쿼리 + flush/clear 단위
+
+    /*
+     * 회원 이름 bloom filter (MemberNameFilter)
+     * expectedInsertions명까지 들어가도 "있을 수도 있음" 오답 비율이 falsePositiveProbability 이하가 되게 크기를 잡음
+     * */
+    @Getter @Setter
+    public static class NameFilter {
+        private int expectedInsertions = 1_000_000;
+        private double falsePositiveProbability = 0.01;
+    }
+
+    /*
+     * 회원 이름 n-gram 색인 (MemberNameIndex)
+     * 부분 검색에 걸린 회원이 maxCandidates명을 넘으면 in 쿼리 대신 원래대로 like 검색
+     * */
+    @Getter @Setter
+    public static class NameIndex {
+        private int maxCandidates = 1000;
+    }
+}
@@ -3,10 +3,25 @@ package jpabook.jpashop.service;
 import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.repository.MemberRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional(readOnly = true)      // JPA의 모든 데이터 변경이나 로직들은 가급적이면 트랜젝션 안에서 실행되야 함. 그래야 Lazy loading이런 것들이 다 됨.
@@ -19,6 +34,10 @@ import java.util.List;
 public class MemberService {
 
     private final MemberRepository memberRepository;
+    private final MemberNameFilter memberNameFilter;
+    private final MemberNameIndex memberNameIndex;
+    private final MemberProperties memberProperties;
+    private final PlatformTransactionManager transactionManager;
 
 
     /*회원 가입*/
@@ -26,7 +45,13 @@ public class MemberService {
     public Long join(Member member) {
 
         validateDuplicateMember(member);        // 중복회원 검증
-        memberRepository.save(member);
+        try {
+            memberRepository.saveAndFlush(member);
+        } catch (DataIntegrityViolationException e) {
+            // 검증은 통과했는데 그 사이 같은 이름이 먼저 가입됨 (동시 가입) -> unique 제약에서 걸림
+            throw new IllegalStateException("이미 존재하는 회원입니다.", e);
+        }
+        putNamesAfterCommit(Collections.singletonList(member));
         return member.getId();
         /* MemberRepository에서 em.persist(member)를 하면 member 객체를 영속성 컨텍스트에 올림.
         (아직까진 DB에 저장 X)
@@ -39,11 +64,138 @@ public class MemberService {
     }
 
 
+    /*
+     * 회원 일괄 가입 (제휴사 파일 등 수만~수십만 건)
+     * join을 한 명씩 부르면 회원마다 중복 확인 select + insert가 따로 나감.
+     * importChunkSize명씩 묶어서
+     *  1. 파일 안에서 같은 이름이 또 나오면 건너뜀
+     *  2. bloom filter가 "있을 수도 있음"이라고 한 이름만 in 쿼리 한 번으로 DB 확인
+     *  3. 나머지는 persist -> flush 때 jdbc batch insert, 그리고 clear (영속성 컨텍스트가 계속 커지지 않게)
+     * 중복은 건너뛰고 결과에 담아서 돌려줌 (전체 가져오기를 멈추지 않음)
+     *
+     * 청크마다 따로 커밋함 (REQUIRES_NEW). 전체를 한 트랜잭션으로 묶으면 수십만 건 insert가 끝날 때까지
+     * 커넥션과 unique 인덱스 락을 쥐고 있고, 마지막 청크에서 하나만 실패해도 앞의 청크까지 다 롤백됨.
+     * */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public MemberImportResult joinAll(Stream<Member> members) {
+        int chunkSize = memberProperties.getImportChunkSize();
+        MemberImportResult result = new MemberImportResult();
+        Set<String> seenNames = new HashSet<>();
+        List<Member> chunk = new ArrayList<>(chunkSize);
+
+        Iterator<Member> iterator = members.iterator();
+        while (iterator.hasNext()) {
+            Member member = iterator.next();
+            if (member.getName() != null && !seenNames.add(member.getName())) {
+                result.addDuplicate(member.getName());      // 파일 안에서 중복
+                continue;
+            }
+            chunk.add(member);
+            if (chunk.size() == chunkSize) {
+                joinChunk(chunk, result);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            joinChunk(chunk, result);
+        }
+        return result;
+    }
+
+    private void joinChunk(List<Member> chunk, MemberImportResult result) {
+        List<String> duplicateNames = new ArrayList<>();
+        List<Member> joined;
+        try {
+            joined = chunkTransaction().execute(status -> saveChunk(chunk, duplicateNames));
+        } catch (DataIntegrityViolationException e) {
+            // 확인한 뒤 flush 전에 같은 이름이 다른 곳에서 먼저 가입됨 -> 청크 전체가 롤백됨
+            // 한 명씩 다시 가입시키면서 먼저 가입된 이름만 중복으로 빼냄
+            joinOneByOne(chunk, result);
+            return;
+        }
+        duplicateNames.forEach(result::addDuplicate);
+        result.addJoined(joined.size());
+    }
+
+    private List<Member> saveChunk(List<Member> chunk, List<String> duplicateNames) {
+        Set<String> candidates = chunk.stream()
+                .map(Member::getName)
+                .filter(Objects::nonNull)
+                .filter(memberNameFilter::mightContain)
+                .collect(Collectors.toSet());
+        Set<String> existingNames = candidates.isEmpty()
+                ? Collections.emptySet()
+                : new HashSet<>(memberRepository.findNamesIn(candidates));
+
+        List<Member> joined = new ArrayList<>(chunk.size());
+        for (Member member : chunk) {
+            if (existingNames.contains(member.getName())) {
+                duplicateNames.add(member.getName());       // 이미 가입된 이름
+                continue;
+            }
+            memberRepository.save(member);
+            joined.add(member);
+        }
+        memberRepository.flushAndClear();
+        putNamesAfterCommit(joined);
+        return joined;
+    }
+
+    private void joinOneByOne(List<Member> chunk, MemberImportResult result) {
+        TransactionTemplate transactionTemplate = chunkTransaction();
+        for (Member member : chunk) {
+            member.setId(null);         // 롤백된 청크에서 persist할 때 받은 id는 버림
+            boolean joined;
+            try {
+                joined = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                    if (memberRepository.existsByName(member.getName())) {
+                        return false;
+                    }
+                    memberRepository.saveAndFlush(member);
+                    putNamesAfterCommit(Collections.singletonList(member));
+                    return true;
+                }));
+            } catch (DataIntegrityViolationException e) {
+                joined = false;         // 이번에도 확인과 insert 사이에 먼저 가입됨
+            }
+
+            if (!joined) {
+                result.addDuplicate(member.getName());
+                continue;
+            }
+            result.addJoined(1);
+        }
+    }
+
+    /*
+     * bloom filter, 이름 색인은 커밋된 뒤에 넣음
+     * 롤백된 이름이 들어가면 색인이 DB에 없는 회원 id를 돌려주고, filter는 이름을 지울 수가 없음.
+     * 커밋 전에 다른 요청이 filter에서 "없음"을 봐도 마지막에는 unique 제약이 막아줌.
+     * */
+    private void putNamesAfterCommit(List<Member> members) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                for (Member member : members) {
+                    memberNameFilter.put(member.getName());
+                    memberNameIndex.put(member.getId(), member.getName());
+                }
+            }
+        });
+    }
+
+    private TransactionTemplate chunkTransaction() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return transactionTemplate;
+    }
+
+
     /* 중복회원 */
     private void validateDuplicateMember(Member member) {
         // 중복회원이 있으면 exception
-        List<Member> findMembers = memberRepository.findByName(member.getName());
-        if (!findMembers.isEmpty()) {
+        // bloom filter가 "없음"이면 DB에 물어볼 필요도 없음. "있을 수도 있음"일 때만 인덱스로 한 건 확인
+        if (memberNameFilter.mightContain(member.getName()) && memberRepository.existsByName(member.getName())) {
             throw new IllegalStateException("이미 존재하는 회원입니다.");
         }
 
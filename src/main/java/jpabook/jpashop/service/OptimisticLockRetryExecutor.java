@@ -0,0 +1,79 @@
+package jpabook.jpashop.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.OptimisticLockException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/*
+ * 낙관적 락 충돌(@Version)이 나면 트랜잭션을 처음부터 다시 실행
+ *
+ * 충돌은 보통 커밋(flush) 시점에 터지고, 그러면 그 트랜잭션은 롤백밖에 못 함.
+ * 그래서 @Transactional 메서드 "안에서" 재시도하면 안 되고, 트랜잭션 바깥에서 새 트랜잭션으로 다시 시도해야 함.
+ * 이미 바깥 트랜잭션(테스트의 @Transactional 등)에 참여 중이면 재시도할 수 없으니 그냥 한 번 실행.
+ * */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OptimisticLockRetryExecutor {
+
+    private final PlatformTransactionManager transactionManager;
+    private final OrderProperties orderProperties;
+
+    private final AtomicLong retryCount = new AtomicLong();
+
+    public <T> T execute(Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        OrderProperties.Retry retry = orderProperties.getRetry();
+        long backoffMillis = retry.getInitialBackoffMillis();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                if (attempt >= retry.getMaxAttempts()) {
+                    log.warn("optimistic lock retry exhausted. attempts={}", attempt);
+                    throw e;
+                }
+                retryCount.incrementAndGet();
+                sleep(backoffMillis);
+                backoffMillis = Math.min(backoffMillis * 2, retry.getMaxBackoffMillis());
+            }
+        }
+    }
+
+    public void run(Runnable action) {
+        execute(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /* 지금까지 재시도한 횟수 (테스트, 모니터링용) */
+    public long getRetryCount() {
+        return retryCount.get();
+    }
+
+    // 동시에 충돌한 트랜잭션들이 똑같은 시간만큼 쉬고 또 부딪히지 않도록 절반 ~ 전체 구간에서 랜덤
+    private void sleep(long backoffMillis) {
+        long jittered = backoffMillis / 2 + ThreadLocalRandom.current().nextLong(backoffMillis / 2 + 1);
+        try {
+            Thread.sleep(jittered);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("재시도 대기 중 인터럽트", e);
+        }
+    }
+}
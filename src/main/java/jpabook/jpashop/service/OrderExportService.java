@@ -0,0 +1,84 @@
+package jpabook.jpashop.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashop.repository.OrderExportRow;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSearch;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/*
+ * 주문 내보내기 (CSV / NDJSON)
+ * DB 커서에서 한 줄 읽으면 바로 writer에 씀 -> 건수가 늘어도 메모리 사용량은 그대로.
+ * FLUSH_EVERY 줄마다 writer를 flush 해서 클라이언트 쪽으로도 바로바로 내려감.
+ * */
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class OrderExportService {
+
+    private static final int FETCH_SIZE = 500;
+    private static final int FLUSH_EVERY = 500;
+
+    private static final String CSV_HEADER = "order_id,order_date,status,member_name,order_item_id,item_name,order_price,count";
+
+    private final OrderRepository orderRepository;
+    private final ObjectMapper objectMapper;
+
+    public void export(OrderSearch orderSearch, OrderExportFormat format, Writer writer) throws IOException {
+        if (format == OrderExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        int[] written = {0};
+        try {
+            orderRepository.streamOrderLines(orderSearch, FETCH_SIZE, row -> {
+                try {
+                    writer.write(format == OrderExportFormat.CSV ? toCsv(row) : toJson(row));
+                    writer.write('\n');
+                    if (++written[0] % FLUSH_EVERY == 0) {
+                        writer.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);      // 람다 안이라 checked 예외를 못 던짐 -> 밖에서 다시 풀어줌
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private String toJson(OrderExportRow row) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(row);
+    }
+
+    private String toCsv(OrderExportRow row) {
+        return row.getOrderId() + "," +
+                row.getOrderDate() + "," +
+                row.getOrderStatus() + "," +
+                csvEscape(row.getMemberName()) + "," +
+                row.getOrderItemId() + "," +
+                csvEscape(row.getItemName()) + "," +
+                row.getOrderPrice() + "," +
+                row.getCount();
+    }
+
+    // 쉼표, 따옴표, 줄바꿈이 들어간 값은 따옴표로 감싸고 안의 따옴표는 두 번
+    private String csvEscape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,142 @@
+package jpabook.jpashop.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * 비동기 주문 접수 + group commit (jpashop.order.intake.enabled=true 일 때만 빈으로 등록)
+ *
+ * 세일 때처럼 주문이 몰리면 order()가 주문마다 트랜잭션을 열고 커밋하기 때문에 커밋 대기 시간이 처리량을 잡아먹음.
+ * 여기서는 주문을 대기열에 넣고 바로 CompletableFuture를 돌려주고,
+ * writer 스레드가 쌓인 주문을 maxGroupSize건까지 한 번에 꺼내서 한 트랜잭션으로 커밋함 (OrderService.placeOrderGroup).
+ * 몰릴수록 한 번에 꺼내는 건수가 늘어나고, 한가할 때는 한 건씩이라 기다리는 시간이 따로 없음.
+ *
+ * - 대기열이 가득 차면 submit이 offerTimeoutMillis까지 기다리고, 그래도 자리가 없으면 거절 (backpressure)
+ * - 재고 부족은 그 주문의 future만 실패, 같은 그룹의 다른 주문은 그대로 커밋
+ * - 그룹 트랜잭션이 통째로 실패하면 (낙관적 락 충돌 등) 그룹의 주문을 한 건씩 order()로 다시 처리
+ * */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "jpashop.order.intake", name = "enabled", havingValue = "true")
+public class OrderIntakeQueue {
+
+    private final OrderService orderService;
+    private final OrderProperties.Intake settings;
+    private final BlockingQueue<OrderRequest> queue;
+    private final List<Thread> writers = new ArrayList<>();
+
+    private volatile boolean running = true;
+
+    public OrderIntakeQueue(OrderService orderService, OrderProperties orderProperties) {
+        this.orderService = orderService;
+        this.settings = orderProperties.getIntake();
+        this.queue = new ArrayBlockingQueue<>(settings.getCapacity());
+    }
+
+    @PostConstruct
+    public void start() {
+        for (int i = 0; i < settings.getWriters(); i++) {
+            Thread writer = new Thread(this::drain, "order-intake-" + i);
+            writer.setDaemon(true);
+            writer.start();
+            writers.add(writer);
+        }
+    }
+
+    /*
+     * 주문 접수. future는 주문이 커밋되면 주문 id로, 실패하면 그 예외로 완료됨
+     * */
+    public CompletableFuture<Long> submit(Long memberId, Long itemId, int count) {
+        OrderRequest request = new OrderRequest(memberId, itemId, count);
+        boolean accepted;
+        try {
+            accepted = running && queue.offer(request, settings.getOfferTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+        if (accepted && !running && queue.remove(request)) {
+            // running을 확인한 뒤 넣는 사이에 stop()이 대기열을 다 비웠으면 아무도 꺼내 가지 않음 -> 도로 빼서 거절
+            // (remove가 false면 writer나 stop()이 이미 꺼내 갔으니 거기서 완료해 줌)
+            accepted = false;
+        }
+        if (!accepted) {
+            request.getFuture().completeExceptionally(new RejectedExecutionException(
+                    running ? "주문 접수 대기열이 가득 찼습니다." : "주문 접수가 종료되었습니다."));
+        }
+        return request.getFuture();
+    }
+
+    public int pending() {
+        return queue.size();
+    }
+
+    private void drain() {
+        List<OrderRequest> group = new ArrayList<>(settings.getMaxGroupSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                OrderRequest first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                queue.drainTo(group, settings.getMaxGroupSize() - 1);
+                commit(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private void commit(List<OrderRequest> group) {
+        try {
+            orderService.placeOrderGroup(group);
+        } catch (RuntimeException e) {
+            log.warn("order group failed, retrying one by one. size={}", group.size(), e);
+            for (OrderRequest request : group) {
+                try {
+                    request.succeeded(orderService.order(request.getMemberId(), request.getItemId(), request.getCount()));
+                } catch (RuntimeException orderFailure) {
+                    request.failed(orderFailure);
+                }
+            }
+        }
+        group.forEach(OrderRequest::complete);
+    }
+
+    /*
+     * 종료: 더 받지 않고, 이미 접수된 주문은 다 처리한 다음 멈춤
+     * writer가 끝난 뒤에도 대기열에 남은 주문(종료 직전에 들어왔거나 writer가 제시간에 못 끝낸 것)은
+     * future가 영원히 완료되지 않으니 거절로 완료함
+     * */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread writer : writers) {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        }
+
+        List<OrderRequest> leftover = new ArrayList<>();
+        queue.drainTo(leftover);
+        if (!leftover.isEmpty()) {
+            log.warn("order intake stopped with {} pending orders, rejecting them", leftover.size());
+        }
+        for (OrderRequest request : leftover) {
+            request.getFuture().completeExceptionally(new RejectedExecutionException("주문 접수가 종료되었습니다."));
+        }
+    }
+}
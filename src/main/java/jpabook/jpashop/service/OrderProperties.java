@@ -0,0 +1,81 @@
+package jpabook.jpashop.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/*
+ * 주문 관련 설정 (application.yml의 jpashop.order.*)
+ * */
+@Component
+@ConfigurationProperties(prefix = "jpashop.order")
+@Getter @Setter
+public class OrderProperties {
+
+    private StockLockMode stockLockMode = StockLockMode.ATOMIC;
+
+    private final Retry retry = new Retry();
+
+    private final Ledger ledger = new Ledger();
+
+    private final Intake intake = new Intake();
+
+    private final TotalCheck totalCheck = new TotalCheck();
+
+    private final Rollup rollup = new Rollup();
+
+    /*
+     * 낙관적 락 충돌 시 재시도
+     * 대기 시간은 initialBackoffMillis부터 2배씩 늘어나고 maxBackoffMillis를 넘지 않음 (+ 랜덤 jitter)
+     * */
+    @Getter @Setter
+    public static class Retry {
+        private int maxAttempts = 5;
+        private long initialBackoffMillis = 10;
+        private long maxBackoffMillis = 200;
+    }
+
+    /*
+     * 인메모리 재고 장부 (StockLockMode.LEDGER)
+     * flushIntervalMillis마다 장부를 최대 flushBatchSize건씩 item 테이블에 반영
+     * */
+    @Getter @Setter
+    public static class Ledger {
+        private long flushIntervalMillis = 1000;
+        private int flushBatchSize = 1000;
+    }
+
+    /*
+     * 비동기 주문 접수 (OrderIntakeQueue, enabled=true일 때만)
+     * 접수 대기열은 capacity건까지. 가득 차면 offerTimeoutMillis만큼 기다렸다가 거절 (backpressure)
+     * writer 스레드 writers개가 대기열에서 최대 maxGroupSize건씩 꺼내 한 트랜잭션으로 커밋 (group commit)
+     * */
+    @Getter @Setter
+    public static class Intake {
+        private boolean enabled = false;
+        private int capacity = 10_000;
+        private int writers = 2;
+        private int maxGroupSize = 100;
+        private long offerTimeoutMillis = 100;
+    }
+
+    /*
+     * 주문 금액(orders.total_price) 정합성 검사 (OrderTotalPriceChecker)
+     * intervalMillis마다 주문 id를 chunkSize개 구간씩 나눠서 주문상품 합계와 비교
+     * */
+    @Getter @Setter
+    public static class TotalCheck {
+        private long intervalMillis = 3_600_000;
+        private int chunkSize = 10_000;
+    }
+
+    /*
+     * 매출 집계 재구축 (SalesRollupRebuilder)
+     * 한 달 치씩 rebuildThreads개 스레드로 나눠서 다시 집계
+     * */
+    @Getter @Setter
+    public static class Rollup {
+        private int rebuildThreads = 4;
+    }
+}
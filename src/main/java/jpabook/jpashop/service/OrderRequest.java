@@ -0,0 +1,45 @@
+package jpabook.jpashop.service;
+
+import lombok.Getter;
+
+import java.util.concurrent.CompletableFuture;
+
+/*
+ * 접수 대기열(OrderIntakeQueue)에 들어가는 주문 한 건
+ * 그룹 트랜잭션 안에서는 결과(orderId 또는 실패)만 적어두고, future는 커밋이 끝난 다음에 완료함
+ * */
+@Getter
+public class OrderRequest {
+
+    private final Long memberId;
+    private final Long itemId;
+    private final int count;
+    private final CompletableFuture<Long> future = new CompletableFuture<>();
+
+    private Long orderId;
+    private RuntimeException failure;
+
+    public OrderRequest(Long memberId, Long itemId, int count) {
+        this.memberId = memberId;
+        this.itemId = itemId;
+        this.count = count;
+    }
+
+    void succeeded(Long orderId) {
+        this.orderId = orderId;
+        this.failure = null;
+    }
+
+    void failed(RuntimeException failure) {
+        this.orderId = null;
+        this.failure = failure;
+    }
+
+    void complete() {
+        if (failure != null) {
+            future.completeExceptionally(failure);
+        } else {
+            future.complete(orderId);
+        }
+    }
+}
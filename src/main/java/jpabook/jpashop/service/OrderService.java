@@ -78,12 +78,26 @@ import jpabook.jpashop.domain.*;
 //import jpabook.jpashop.domain.Order;
 //import jpabook.jpashop.domain.OrderItem;
 import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.exception.NotEnoughStockException;
 import jpabook.jpashop.repository.ItemRepository;
 import jpabook.jpashop.repository.MemberRepository;
+import jpabook.jpashop.repository.OrderPage;
 import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.OrderSearchQueryTemplates;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 
 @Service
@@ -91,26 +105,39 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 public class OrderService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final OrderRepository orderRepository;
     private final MemberRepository memberRepository;
     private final ItemRepository itemRepository;
+    private final OrderProperties orderProperties;
+    private final OptimisticLockRetryExecutor retryExecutor;
+    private final StockLedger stockLedger;
+    private final OrderSearchQueryTemplates orderSearchQueryTemplates;
+    private final SalesRollupRecorder salesRollupRecorder;
+    private final MemberNameIndex memberNameIndex;
 
 
     /*
      * 주문
+     * 낙관적 락 충돌이 나면 새 트랜잭션으로 다시 시도해야 해서, 메서드는 트랜잭션을 직접 열지 않고(SUPPORTS)
+     * retryExecutor가 시도할 때마다 트랜잭션을 엶. (바깥 트랜잭션이 있으면 거기에 그냥 참여)
      */
-    @Transactional
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Long order(Long memberId, Long itemId, int count) {
+        return retryExecutor.execute(() -> placeOrder(memberId, itemId, count));
+    }
+
+    private Long placeOrder(Long memberId, Long itemId, int count) {
         // 엔티티 조회
         Member member = memberRepository.findOne(memberId);
-        Item item = itemRepository.findOne(itemId);
 
         // 배송 정보 생성
         Delivery delivery = new Delivery();
         delivery.setAddress(member.getAddress());
 
-        // 주문 상품 생성
-        OrderItem orderItem = OrderItem.createOrderItem(item, item.getPrice(), count);
+        // 주문 상품 생성 (재고 차감 방식은 StockLockMode에 따라)
+        OrderItem orderItem = createOrderItem(itemId, count);
 
         /*
         생성 메서드를 누구는 createOrderItem()로 쓰고,
@@ -137,10 +164,30 @@ public class OrderService {
 
         // 주문 저장
         orderRepository.save(order);
+        salesRollupRecorder.orderPlaced(order);     // 매출 집계 증분 (커밋 직전에 한꺼번에 반영)
 
         return order.getId();
     }
 
+    /*
+     * 주문 여러 건을 한 트랜잭션으로 (OrderIntakeQueue의 group commit)
+     * 재고 부족은 재고를 건드리기 전에 걸러지기 때문에 그 주문만 실패로 적고 나머지는 계속 진행.
+     * 그 밖의 예외는 트랜잭션(영속성 컨텍스트)이 어떤 상태인지 알 수 없으니 그룹 전체를 롤백
+     * -> 잡아둔 재고도 같이 롤백됨 (ATOMIC은 DB 롤백, LEDGER는 장부가 롤백 시 카운터를 돌려줌)
+     * -> 호출한 쪽에서 한 건씩 order()로 다시 처리.
+     * 결과는 요청에 적기만 함. 커밋 전에 주문 id를 알려주면 안 되니까 future 완료는 호출한 쪽에서.
+     */
+    @Transactional
+    public void placeOrderGroup(List<OrderRequest> requests) {
+        for (OrderRequest request : requests) {
+            try {
+                request.succeeded(placeOrder(request.getMemberId(), request.getItemId(), request.getCount()));
+            } catch (NotEnoughStockException e) {
+                request.failed(e);
+            }
+        }
+    }
+
     /* cascade 설정을 해놔서 orderRepository.save(order); 하면 orderItem이랑 delivery까지 자동으로 persist 된다.*/
 
 
@@ -155,20 +202,175 @@ public class OrderService {
         */
 
 
-    // 주문 취소
-    @Transactional
+    /*
+     * 장바구니 주문 (여러 상품을 한 주문으로)
+     * 상품 줄마다 order()를 부르면 줄 수만큼 트랜잭션과 insert가 따로 나감.
+     * 한 트랜잭션에서 Order 하나에 OrderItem을 모두 붙이고, insert는 hibernate.jdbc.batch_size + order_inserts로 묶어서 보냄.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Long order(Long memberId, List<OrderLine> orderLines) {
+        return retryExecutor.execute(() -> placeOrder(memberId, orderLines));
+    }
+
+    private Long placeOrder(Long memberId, List<OrderLine> orderLines) {
+        // ATOMIC/LEDGER면 재고부터 잡고 -> 엔티티 조회 (상품은 in 쿼리 한 번)
+        Member member = memberRepository.findOne(memberId);
+        StockLockMode mode = orderProperties.getStockLockMode();
+        if (mode.reservesUpfront()) {
+            // 같은 상품이 여러 줄이면 합쳐서 한 번만, 상품 id 오름차순으로 잡음
+            // 줄 순서대로 잡으면 A->B 주문과 B->A 주문이 서로의 row 락을 기다리다 deadlock
+            countsByItemId(orderLines).forEach(this::reserveStock);
+        }
+        Map<Long, Item> items = findItems(orderLines, mode == StockLockMode.PESSIMISTIC);
+
+        // 배송 정보 생성
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+
+        // 주문 상품 생성
+        OrderItem[] orderItems = new OrderItem[orderLines.size()];
+        for (int i = 0; i < orderLines.size(); i++) {
+            OrderLine orderLine = orderLines.get(i);
+            Item item = items.get(orderLine.getItemId());
+            orderItems[i] = mode.reservesUpfront()
+                    ? OrderItem.createReservedOrderItem(item, item.getPrice(), orderLine.getCount())
+                    : OrderItem.createOrderItem(item, item.getPrice(), orderLine.getCount());
+        }
+
+        // 주문 생성 + 저장 (cascade로 orderItem, delivery 까지 persist)
+        Order order = Order.createOrder(member, delivery, orderItems);
+        orderRepository.save(order);
+        salesRollupRecorder.orderPlaced(order);
+
+        return order.getId();
+    }
+
+    private Map<Long, Integer> countsByItemId(List<OrderLine> orderLines) {
+        return orderLines.stream()
+                .collect(Collectors.toMap(OrderLine::getItemId, OrderLine::getCount, Integer::sum, TreeMap::new));
+    }
+
+    private Map<Long, Item> findItems(List<OrderLine> orderLines, boolean forUpdate) {
+        Set<Long> itemIds = orderLines.stream()
+                .map(OrderLine::getItemId)
+                .collect(Collectors.toSet());
+
+        List<Item> found = forUpdate
+                ? itemRepository.findAllByIdsForUpdate(itemIds)
+                : itemRepository.findAllByIds(itemIds);
+        Map<Long, Item> items = found.stream()
+                .collect(Collectors.toMap(Item::getId, item -> item));
+
+        for (Long itemId : itemIds) {
+            if (!items.containsKey(itemId)) {
+                throw new IllegalArgumentException("존재하지 않는 상품입니다. itemId=" + itemId);
+            }
+        }
+        return items;
+    }
+
+    private OrderItem createOrderItem(Long itemId, int count) {
+        StockLockMode mode = orderProperties.getStockLockMode();
+        if (mode.reservesUpfront()) {
+            reserveStock(itemId, count);                    // update ... where stock >= count 한 문장 (또는 재고 장부), 동시 주문에도 초과 판매 X
+            Item item = itemRepository.findOne(itemId);     // 주문 가격 때문에 조회는 필요. 재고는 이미 차감됨
+            return OrderItem.createReservedOrderItem(item, item.getPrice(), count);
+        }
+
+        Item item = mode == StockLockMode.PESSIMISTIC
+                ? itemRepository.findOneForUpdate(itemId)
+                : itemRepository.findOne(itemId);
+        return OrderItem.createOrderItem(item, item.getPrice(), count);     // 변경 감지로 재고 차감 (@Version 체크)
+    }
+
+    private void reserveStock(Long itemId, int count) {
+        boolean reserved = orderProperties.getStockLockMode() == StockLockMode.LEDGER
+                ? stockLedger.tryReserve(itemId, count)
+                : itemRepository.tryReserveStock(itemId, count);
+        if (!reserved) {
+            throw new NotEnoughStockException("need more stock");
+        }
+    }
+
+    private void releaseStock(Long itemId, int count) {
+        if (orderProperties.getStockLockMode() == StockLockMode.LEDGER) {
+            stockLedger.release(itemId, count);
+        } else {
+            itemRepository.releaseStock(itemId, count);
+        }
+    }
+
+
+    // 주문 취소 (주문과 마찬가지로 낙관적 락 충돌 시 재시도)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void cancelOrder(Long orderId) {
+        retryExecutor.run(() -> cancel(orderId));
+    }
+
+    private void cancel(Long orderId) {
         // 주문 엔티티 조회
         Order order = orderRepository.findOne(orderId);
 
-        // 주문 취소
+        StockLockMode mode = orderProperties.getStockLockMode();
+        if (mode.reservesUpfront()) {
+            // 주문 취소 + 재고 원복 (차감할 때처럼 update 한 문장 또는 재고 장부로)
+            order.markCanceled();
+            for (OrderItem orderItem : order.getOrderItems()) {
+                releaseStock(orderItem.getItem().getId(), orderItem.getCount());
+            }
+            salesRollupRecorder.orderCanceled(order);
+            return;
+        }
+
+        if (mode == StockLockMode.PESSIMISTIC) {
+            // 재고를 되돌릴 상품 row부터 잠금
+            Set<Long> itemIds = order.getOrderItems().stream()
+                    .map(orderItem -> orderItem.getItem().getId())
+                    .collect(Collectors.toSet());
+            itemRepository.findAllByIdsForUpdate(itemIds);
+        }
+
+        // 주문 취소 (변경 감지로 재고 원복)
         order.cancel();
+        salesRollupRecorder.orderCanceled(order);
     }
 
-    // 주문 검색
-//    public List<Order> findOrders(OrderSearch orderSearch) {
-//        return orderRepository.findAll(orderSearch);
-//    }
+    // 주문 검색 (조건 조합별로 미리 만들어 둔 쿼리 사용)
+    public List<Order> findOrders(OrderSearch orderSearch) {
+        OrderSearch search = resolveMemberName(orderSearch);
+        if (search == null) {
+            return Collections.emptyList();
+        }
+        return orderSearchQueryTemplates.findAll(search);
+    }
+
+    // 주문 검색 (keyset 페이징, pageToken이 없으면 첫 페이지). 한 페이지는 최대 MAX_PAGE_SIZE건
+    public OrderPage findOrders(OrderSearch orderSearch, String pageToken, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("페이지 크기는 1 이상이어야 합니다. size=" + size);
+        }
+        OrderSearch search = resolveMemberName(orderSearch);
+        if (search == null) {
+            return new OrderPage(Collections.emptyList(), null);
+        }
+        return orderRepository.findPage(search, pageToken, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    /*
+     * 회원 이름 부분 검색(like '%이름%')을 n-gram 색인(MemberNameIndex)으로 회원 id 후보로 바꿈 -> member_id in (...)
+     * 이름이 맞는 회원이 없으면 null (조회할 필요도 없음)
+     * 색인이 준비 전이거나 후보가 너무 많으면 그대로 (like)
+     * */
+    private OrderSearch resolveMemberName(OrderSearch orderSearch) {
+        if (!StringUtils.hasText(orderSearch.getMemberName())) {
+            return orderSearch;
+        }
+        Optional<Set<Long>> memberIds = memberNameIndex.findIdsContaining(orderSearch.getMemberName());
+        if (!memberIds.isPresent()) {
+            return orderSearch;
+        }
+        return memberIds.get().isEmpty() ? null : orderSearch.withMemberIds(memberIds.get());
+    }
 
 
         /*  PDF의 55쪽 도메인 모델 패턴 잘 읽어보기 */
@@ -0,0 +1,25 @@
+package jpabook.jpashop.service;
+
+import lombok.Getter;
+
+/*
+ * 저장된 주문 금액과 주문상품 합계가 어긋난 주문 (OrderTotalPriceChecker 결과)
+ * */
+@Getter
+public class OrderTotalMismatch {
+
+    private final Long orderId;
+    private final int storedTotalPrice;     // orders.total_price
+    private final long lineTotalPrice;      // 주문상품 가격 * 수량의 합 (취소된 주문이면 0이어야 맞음)
+
+    public OrderTotalMismatch(Long orderId, int storedTotalPrice, long lineTotalPrice) {
+        this.orderId = orderId;
+        this.storedTotalPrice = storedTotalPrice;
+        this.lineTotalPrice = lineTotalPrice;
+    }
+
+    @Override
+    public String toString() {
+        return "order " + orderId + ": stored=" + storedTotalPrice + ", lines=" + lineTotalPrice;
+    }
+}
@@ -0,0 +1,60 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * 주문 금액(orders.total_price) 정합성 검사
+ *
+ * total_price는 Order.addOrderItem / 취소할 때만 바뀌는 비정규화 값이라
+ * 누가 주문상품을 SQL로 직접 고치거나 하면 어긋날 수 있음 -> 주기적으로 주문상품 합계와 비교해서 로그로 남김.
+ * 고치지는 않음 (어느 쪽이 맞는지는 사람이 봐야 함).
+ * */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class OrderTotalPriceChecker {
+
+    private static final int LOGGED_MISMATCHES = 100;
+
+    private final OrderRepository orderRepository;
+    private final OrderProperties orderProperties;
+
+    @Scheduled(initialDelayString = "${jpashop.order.total-check.interval-millis:3600000}",
+            fixedDelayString = "${jpashop.order.total-check.interval-millis:3600000}")
+    public void scheduledCheck() {
+        check();
+    }
+
+    public List<OrderTotalMismatch> check() {
+        List<OrderTotalMismatch> mismatches = new ArrayList<>();
+        Long[] idRange = orderRepository.findIdRange();
+        if (idRange == null) {
+            return mismatches;
+        }
+
+        long chunkSize = orderProperties.getTotalCheck().getChunkSize();
+        long maxId = idRange[1];
+        for (long fromId = idRange[0] - 1; fromId < maxId; fromId += chunkSize) {
+            for (Object[] row : orderRepository.findTotalPriceMismatches(fromId, Math.min(fromId + chunkSize, maxId))) {
+                mismatches.add(new OrderTotalMismatch((Long) row[0], (Integer) row[1], ((Number) row[2]).longValue()));
+            }
+        }
+
+        if (mismatches.isEmpty()) {
+            log.info("order total price check: orders {}..{} consistent", idRange[0], maxId);
+        } else {
+            log.warn("order total price check: {} mismatched orders (first {}): {}", mismatches.size(),
+                    Math.min(mismatches.size(), LOGGED_MISMATCHES), mismatches.subList(0, Math.min(mismatches.size(), LOGGED_MISMATCHES)));
+        }
+        return mismatches;
+    }
+}
@@ -0,0 +1,31 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.sales.ItemDailySales;
+import jpabook.jpashop.domain.sales.MemberMonthlySales;
+import jpabook.jpashop.repository.SalesRollupRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/*
+ * 매출 리포트 - 집계 테이블만 읽음 (orders, order_item은 안 봄)
+ * */
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class SalesReportService {
+
+    private final SalesRollupRepository salesRollupRepository;
+
+    public List<ItemDailySales> findItemDailySales(Long itemId, LocalDate from, LocalDate to) {
+        return salesRollupRepository.findItemDailySales(itemId, from, to);
+    }
+
+    public List<MemberMonthlySales> findMemberMonthlySales(Long memberId, YearMonth from, YearMonth to) {
+        return salesRollupRepository.findMemberMonthlySales(memberId, from.atDay(1), to.atDay(1));
+    }
+}
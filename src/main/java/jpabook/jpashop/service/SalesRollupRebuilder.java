@@ -0,0 +1,88 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.repository.SalesRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+ * 매출 집계 테이블을 orders + order_item에서 처음부터 다시 만들기
+ * 집계 테이블을 새로 추가했거나, 증분 반영이 어긋났을 때 (SQL로 주문을 직접 고쳤다든지)
+ *
+ *   java -jar jpashop.jar --rebuild-sales-rollup
+ *
+ * 집계를 비우고 -> 주문을 한 달 치씩 나눠서 여러 스레드가 각자 트랜잭션으로 다시 집계해서 insert.
+ * 달마다 집계 row가 겹치지 않아서 스레드끼리 같은 row를 건드리지 않음.
+ * 도는 동안 들어온 주문의 증분과 섞이면 안 되니까 주문을 받지 않을 때 돌려야 함.
+ * 중간에 실패하면 그냥 다시 돌리면 됨 (처음에 비우니까).
+ * */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SalesRollupRebuilder implements ApplicationRunner {
+
+    static final String REBUILD_OPTION = "rebuild-sales-rollup";
+
+    private final SalesRollupRepository salesRollupRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final OrderProperties orderProperties;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (args.containsOption(REBUILD_OPTION)) {
+            rebuild();
+        }
+    }
+
+    /*
+     * 다시 집계한 달 수
+     * */
+    public int rebuild() throws InterruptedException {
+        long begin = System.nanoTime();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> salesRollupRepository.deleteAll());
+
+        LocalDateTime[] range = salesRollupRepository.findOrderDateRange();
+        if (range == null) {
+            return 0;
+        }
+        List<LocalDate> months = new ArrayList<>();
+        LocalDate last = range[1].toLocalDate().withDayOfMonth(1);
+        for (LocalDate month = range[0].toLocalDate().withDayOfMonth(1); !month.isAfter(last); month = month.plusMonths(1)) {
+            months.add(month);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(orderProperties.getRollup().getRebuildThreads(), months.size()));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (LocalDate month : months) {
+                futures.add(executor.submit(() -> transactionTemplate.executeWithoutResult(
+                        status -> salesRollupRepository.insertMonthFromOrders(month))));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("매출 집계 재구축 실패", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        log.info("sales rollup rebuilt: {} months ({} ~ {}) in {} ms",
+                months.size(), months.get(0), last, (System.nanoTime() - begin) / 1_000_000);
+        return months.size();
+    }
+}
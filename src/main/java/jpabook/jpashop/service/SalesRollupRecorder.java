@@ -0,0 +1,122 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.sales.ItemDailySales;
+import jpabook.jpashop.domain.sales.MemberMonthlySales;
+import jpabook.jpashop.repository.SalesRollupRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/*
+ * 주문/취소를 매출 집계 테이블(ItemDailySales, MemberMonthlySales)에 반영
+ *
+ * 주문 한 건마다 바로 update 하지 않고 트랜잭션 동안 증감분을 메모리에 모아 뒀다가 (같은 row끼리 합쳐서)
+ * 커밋 직전(beforeCommit)에 테이블별 jdbc batch 한 번으로 반영함.
+ * -> group commit(placeOrderGroup)이면 주문 수와 상관없이 row 수만큼만 update
+ * -> 인기 상품 row의 락은 커밋 직전부터만 잡힘
+ * 트랜잭션이 롤백되면 모아 둔 증감분은 그냥 버려짐.
+ *
+ * 취소는 주문한 날짜/달에서 뺌 (취소한 날이 아니라). 그래야 재구축(SalesRollupRebuilder) 결과와 같음.
+ * */
+@Component
+@RequiredArgsConstructor
+public class SalesRollupRecorder {
+
+    private final SalesRollupRepository salesRollupRepository;
+
+    public void orderPlaced(Order order) {
+        record(order, 1);
+    }
+
+    /*
+     * 취소하면 order.totalPrice가 0이 되니까 금액은 주문상품에서 다시 계산
+     * */
+    public void orderCanceled(Order order) {
+        record(order, -1);
+    }
+
+    private void record(Order order, int sign) {
+        LocalDate salesDate = order.getOrderDate().toLocalDate();
+
+        // 같은 상품이 여러 줄이어도 주문 수는 1
+        Map<Long, long[]> byItem = new HashMap<>();
+        for (OrderItem orderItem : order.getOrderItems()) {
+            long[] line = byItem.computeIfAbsent(orderItem.getItem().getId(), itemId -> new long[2]);
+            line[0] += orderItem.getCount();
+            line[1] += orderItem.getTotalPrice();
+        }
+
+        Deltas deltas = currentDeltas();
+        byItem.forEach((itemId, line) -> deltas.addItemDaily(
+                new ItemDailySales.Key(itemId, salesDate), sign, sign * line[0], sign * line[1]));
+        deltas.addMemberMonthly(new MemberMonthlySales.Key(order.getMember().getId(), salesDate.withDayOfMonth(1)),
+                sign, (long) sign * order.calculateTotalPrice());
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(deltas);      // 트랜잭션 밖이면 모을 게 없으니 바로
+        }
+    }
+
+    private Deltas currentDeltas() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new Deltas();
+        }
+
+        Deltas deltas = (Deltas) TransactionSynchronizationManager.getResource(this);
+        if (deltas == null) {
+            Deltas created = new Deltas();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    apply(created);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(SalesRollupRecorder.this);
+                }
+            });
+            deltas = created;
+        }
+        return deltas;
+    }
+
+    private void apply(Deltas deltas) {
+        if (!deltas.itemDaily.isEmpty()) {
+            salesRollupRepository.addItemDailySales(deltas.itemDaily);
+        }
+        if (!deltas.memberMonthly.isEmpty()) {
+            salesRollupRepository.addMemberMonthlySales(deltas.memberMonthly);
+        }
+    }
+
+    /*
+     * 한 트랜잭션에서 모은 증감분. row 순서대로 update 하려고 TreeMap (ItemDailySales.Key 참고)
+     * */
+    private static class Deltas {
+        private final Map<ItemDailySales.Key, long[]> itemDaily = new TreeMap<>();             // [주문 수, 수량, 금액]
+        private final Map<MemberMonthlySales.Key, long[]> memberMonthly = new TreeMap<>();     // [주문 수, 금액]
+
+        void addItemDaily(ItemDailySales.Key key, long orderCount, long quantity, long amount) {
+            long[] delta = itemDaily.computeIfAbsent(key, k -> new long[3]);
+            delta[0] += orderCount;
+            delta[1] += quantity;
+            delta[2] += amount;
+        }
+
+        void addMemberMonthly(MemberMonthlySales.Key key, long orderCount, long amount) {
+            long[] delta = memberMonthly.computeIfAbsent(key, k -> new long[2]);
+            delta[0] += orderCount;
+            delta[1] += amount;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.StockJournal;
+import jpabook.jpashop.repository.StockJournalRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * 인메모리 재고 장부 (StockLockMode.LEDGER)
+ *
+ * 인기 상품은 주문마다 item row를 update 하니까 row 락 대기 시간이 곧 처리량의 한계가 됨.
+ * 그래서 "재고가 남았는지" 판단은 메모리의 상품별 카운터(AtomicLong CAS, 락 없음)로 하고,
+ * 주문 트랜잭션에서는 item 대신 stock_journal에 변화량만 insert 함 (row 락 경쟁 없음).
+ * 쌓인 장부는 flush()가 주기적으로 상품별로 합쳐서 item에 batch update 하고 지움 (write-behind).
+ *
+ * - 주문 트랜잭션이 롤백되면 메모리에서 잡아둔 재고를 돌려줌
+ * - 장부는 주문과 같이 커밋되니까 서버가 죽어도 남아 있고, 시작할 때 전부 item에 반영함 (reconcile)
+ * - 카운터는 JVM 하나 기준. 서버를 여러 대 띄우면 서버끼리 재고를 나눠 갖는 장치가 따로 필요함.
+ * */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StockLedger {
+
+    private final StockJournalRepository stockJournalRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final OrderProperties orderProperties;
+
+    private final ConcurrentMap<Long, AtomicLong> available = new ConcurrentHashMap<>();
+
+    /*
+     * 재고 예약 (메모리에서 차감 + 장부 기록). 재고가 모자라면 false
+     * 호출하는 쪽의 트랜잭션 안에서 불러야 함.
+     * */
+    public boolean tryReserve(Long itemId, int quantity) {
+        AtomicLong counter = counterOf(itemId);
+        long current;
+        do {
+            current = counter.get();
+            if (current < quantity) {
+                return false;
+            }
+        } while (!counter.compareAndSet(current, current - quantity));
+
+        stockJournalRepository.save(new StockJournal(itemId, -quantity));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    counter.addAndGet(quantity);        // 주문이 롤백되면 잡아둔 재고를 돌려줌
+                }
+            }
+        });
+        return true;
+    }
+
+    /*
+     * 재고 원복 (주문 취소)
+     * 취소가 롤백됐는데 재고만 늘어나면 안 되니까 메모리 카운터는 커밋된 다음에 올림
+     * */
+    public void release(Long itemId, int quantity) {
+        stockJournalRepository.save(new StockJournal(itemId, quantity));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                AtomicLong counter = available.get(itemId);
+                if (counter != null) {
+                    counter.addAndGet(quantity);
+                }
+            }
+        });
+    }
+
+    /*
+     * 상품 정보를 직접 수정해서(재고 입고 등) item의 재고를 newStock으로 덮어쓸 때. 덮어쓰기 전에 불러야 함.
+     * 커밋된 다음에 바뀐 만큼만 카운터에 더함.
+     * 커밋 전에 카운터를 버리면 그 사이 주문이 커밋 전 재고를 다시 읽어 가고,
+     * 버리고 다시 읽게 하면 인기 상품일수록 그동안 주문마다 DB를 읽게 됨.
+     * */
+    public void stockOverwritten(Long itemId, int newStock) {
+        AtomicLong counter = available.get(itemId);     // 지금 있는 카운터는 커밋 전 재고 기준
+        long delta;
+        if (counter == null) {
+            delta = 0;
+        } else {
+            Long previousStock = stockJournalRepository.findItemStock(itemId);
+            delta = previousStock == null ? 0 : newStock - previousStock;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (counter != null && available.get(itemId) == counter) {
+                    counter.addAndGet(delta);
+                } else {
+                    // 트랜잭션 중에 새로 읽어 간 카운터는 커밋 전 재고일 수 있어서 버림 (다음 주문 때 다시 읽음)
+                    available.remove(itemId);
+                }
+            }
+        });
+    }
+
+    /*
+     * 장부를 item 테이블에 반영 (write-behind)
+     * 반영과 삭제를 한 트랜잭션에서 하기 때문에 중간에 죽어도 두 번 반영되거나 빠지지 않음.
+     * 스케줄러와 시작 시 복구가 겹치지 않게 synchronized
+     * 장부를 안 쓰는 모드(기본 ATOMIC 등)에서는 주기적으로 stock_journal을 조회할 필요가 없음
+     * (모드를 바꾸기 전에 남은 장부는 flush()를 직접 부르거나 다음 시작 때 reconcile로 반영)
+     * */
+    @Scheduled(fixedDelayString = "${jpashop.order.ledger.flush-interval-millis:1000}")
+    public void scheduledFlush() {
+        if (orderProperties.getStockLockMode() != StockLockMode.LEDGER) {
+            return;
+        }
+        flush();
+    }
+
+    public synchronized int flush() {
+        Integer flushed = new TransactionTemplate(transactionManager).execute(status -> {
+            List<long[]> pending = stockJournalRepository.findPending(orderProperties.getLedger().getFlushBatchSize());
+            if (pending.isEmpty()) {
+                return 0;
+            }
+
+            Map<Long, Long> deltaByItemId = new HashMap<>();
+            List<Long> stockJournalIds = new ArrayList<>(pending.size());
+            for (long[] journal : pending) {
+                stockJournalIds.add(journal[0]);
+                deltaByItemId.merge(journal[1], journal[2], Long::sum);
+            }
+
+            stockJournalRepository.applyToItems(deltaByItemId);
+            stockJournalRepository.deleteAll(stockJournalIds);
+            return pending.size();
+        });
+        return flushed == null ? 0 : flushed;
+    }
+
+    /*
+     * 시작할 때 지난번에 반영 못 한 장부를 전부 item에 반영 (crash 복구)
+     * */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcile() {
+        int total = 0;
+        int flushed;
+        while ((flushed = flush()) > 0) {
+            total += flushed;
+        }
+        available.clear();
+        if (total > 0) {
+            log.info("stock ledger reconciled. journals={}", total);
+        }
+    }
+
+    private AtomicLong counterOf(Long itemId) {
+        AtomicLong counter = available.get(itemId);
+        if (counter != null) {
+            return counter;
+        }
+        Long stock = stockJournalRepository.findAvailableStock(itemId);
+        AtomicLong loaded = new AtomicLong(stock == null ? 0 : stock);
+        AtomicLong previous = available.putIfAbsent(itemId, loaded);
+        return previous == null ? loaded : previous;
+    }
+}
@@ -0,0 +1,16 @@
+package jpabook.jpashop.service;
+
+/*
+ * 주문/취소할 때 재고를 어떻게 지킬지
+ * */
+public enum StockLockMode {
+    ATOMIC,         // update ... set stock = stock - ? where stock >= ? 한 문장 (기본)
+    OPTIMISTIC,     // 엔티티로 읽고 변경 감지, @Version 충돌 나면 트랜잭션을 다시 시도
+    PESSIMISTIC,    // select ... for update 로 상품 row를 잠그고 변경 감지
+    LEDGER;         // 메모리 카운터로 예약 + 장부 insert, item 반영은 나중에 모아서 (StockLedger)
+
+    /* 상품을 엔티티로 읽기 전에 재고부터 잡는 방식인지 (Item.removeStock/addStock을 거치지 않음) */
+    public boolean reservesUpfront() {
+        return this == ATOMIC || this == LEDGER;
+    }
+}
@@ -0,0 +1,89 @@
+package jpabook.jpashop.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.service.MemberService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * readOnly 트랜잭션은 replica 풀, 나머지는 primary 풀에서 커넥션을 가져가는지 확인
+ * 스키마는 primary에만 만들어지기 때문에 (ddl-auto) replica도 같은 in-memory DB를 가리키게 하고
+ * 어느 쪽으로 갔는지는 각 커넥션 풀의 사용 중인 커넥션 수로 확인.
+ * */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1",
+        "jpashop.datasource.replica.url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1",
+        "jpashop.datasource.replica.username=sa",
+        "jpashop.datasource.replica.read-your-writes-millis=0"})
+class ReadWriteRoutingTest {
+
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired EntityManager em;
+    @Autowired MemberService memberService;
+    @Autowired HikariDataSource primaryDataSource;
+    @Autowired HikariDataSource replicaDataSource;
+
+    @Test
+    void readOnly_트랜잭션은_replica로() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        String target = readOnly.execute(status -> {
+            em.createQuery("select count(m) from Member m").getSingleResult();
+            return activeTarget();
+        });
+
+        assertThat(target).isEqualTo(ReadWriteRoutingDataSource.REPLICA);
+    }
+
+    @Test
+    void 쓰기_트랜잭션은_primary로() {
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+
+        String target = readWrite.execute(status -> {
+            em.createQuery("select count(m) from Member m").getSingleResult();
+            return activeTarget();
+        });
+
+        assertThat(target).isEqualTo(ReadWriteRoutingDataSource.PRIMARY);
+    }
+
+    @Test
+    void 서비스_조회는_replica에서_primary에_쓴_데이터를_읽음() {
+        //given
+        Member member = new Member();
+        member.setName("routing-member");
+        member.setAddress(new Address("서울", "강가", "12345"));
+
+        //when
+        Long memberId = memberService.join(member);     // 쓰기 트랜잭션 -> primary
+
+        //then
+        assertThat(memberService.findOne(memberId).getName()).isEqualTo("routing-member");    // readOnly -> replica
+    }
+
+    private String activeTarget() {
+        if (activeConnections(replicaDataSource) > 0) {
+            return ReadWriteRoutingDataSource.REPLICA;
+        }
+        if (activeConnections(primaryDataSource) > 0) {
+            return ReadWriteRoutingDataSource.PRIMARY;
+        }
+        return null;
+    }
+
+    private int activeConnections(HikariDataSource dataSource) {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();     // 풀은 처음 커넥션을 달라고 할 때 만들어짐
+        return pool == null ? 0 : pool.getActiveConnections();
+    }
+}
@@ -0,0 +1,106 @@
+package jpabook.jpashop.metrics;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.repository.MemberRepository;
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.StockJournalRepository;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class QueryMetricsTest {
+
+    @Autowired QueryMetricsRegistry registry;
+    @Autowired MemberService memberService;
+    @Autowired MemberRepository memberRepository;
+    @Autowired OrderService orderService;
+    @Autowired StockJournalRepository stockJournalRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void reset() {
+        registry.reset();
+    }
+
+    @Test
+    void 서비스_호출에는_안에서_부른_리포지토리_쿼리까지_합쳐진다() {
+        //given
+        Member member = new Member();
+        member.setName("metrics-member");
+        member.setAddress(new Address("서울", "강가", "12345"));
+
+        //when
+        memberService.join(member);
+        orderService.findOrders(new OrderSearch());
+
+        //then
+        MethodQueryStats.Snapshot join = find("MemberService.join").orElseThrow(AssertionError::new);
+        MethodQueryStats.Snapshot save = find("MemberRepository.saveAndFlush").orElseThrow(AssertionError::new);
+        assertThat(join.getCalls()).isEqualTo(1);
+        assertThat(join.getStatements()).isGreaterThanOrEqualTo(save.getStatements());
+        assertThat(save.getStatements()).isPositive();      // insert
+
+        MethodQueryStats.Snapshot findOrders = find("OrderService.findOrders").orElseThrow(AssertionError::new);
+        assertThat(findOrders.getStatements()).isPositive();
+    }
+
+    @Test
+    void JdbcTemplate으로_보낸_SQL도_DataSource에서_잡힌다() {
+        //when
+        SqlCapture.Result single = SqlCapture.capture(() -> stockJournalRepository.findAvailableStock(-1L)).result();
+        SqlCapture.Result batch = SqlCapture.capture(() -> jdbcTemplate.batchUpdate(
+                "update item set stock_quantity = stock_quantity where item_id = ?",
+                Arrays.asList(new Object[]{-1L}, new Object[]{-2L}))).result();
+
+        //then
+        assertThat(single.count()).as(single.toString()).isEqualTo(1);
+        assertThat(single.statements().get(0)).contains("stock_journal");
+        assertThat(batch.updates()).as(batch.toString()).isEqualTo(1);     // jdbc batch는 한 번
+        assertThat(find("StockJournalRepository.findAvailableStock").orElseThrow(AssertionError::new).getStatements())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void 읽은_row_수는_엔티티가_아닌_조회도_센다() {
+        //given
+        String prefix = "metrics-rows-" + System.nanoTime();
+        List<String> names = Arrays.asList(prefix + "-a", prefix + "-b", prefix + "-c");
+        for (String name : names) {
+            Member member = new Member();
+            member.setName(name);
+            memberService.join(member);
+        }
+        registry.reset();
+
+        //when
+        memberRepository.findNamesIn(names);        // 스칼라 조회 -> 엔티티 로딩 없음
+        memberRepository.findByName(names.get(0));
+
+        //then
+        MethodQueryStats.Snapshot namesIn = find("MemberRepository.findNamesIn").orElseThrow(AssertionError::new);
+        assertThat(namesIn.getRowsFetched()).isEqualTo(3);
+        assertThat(namesIn.getMaxRowsFetched()).isEqualTo(3);
+        assertThat(namesIn.getEntityLoads()).isZero();
+
+        MethodQueryStats.Snapshot byName = find("MemberRepository.findByName").orElseThrow(AssertionError::new);
+        assertThat(byName.getRowsFetched()).isEqualTo(1);
+    }
+
+    private Optional<MethodQueryStats.Snapshot> find(String method) {
+        return registry.snapshot().stream()
+                .filter(snapshot -> snapshot.getMethod().equals(method))
+                .findFirst();
+    }
+}
@@ -0,0 +1,102 @@
+package jpabook.jpashop.metrics;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/*
+ * 블록 안에서 실행된 SQL을 모아서 쿼리 수를 검증하는 테스트 유틸
+ *
+ *   SqlCapture.Result result = SqlCapture.capture(() -> orderService.order(memberId, itemId, 1));
+ *   assertThat(result.count()).isLessThanOrEqualTo(5);
+ *
+ * DataSource(QueryMetricsDataSource)에서 실행되는 SQL을 잡음 -> hibernate가 보낸 것이든 JdbcTemplate으로 직접 보낸 것이든 다 들어감.
+ * 지금 스레드에서 실행된 것만 모음. jdbc batch는 statement 하나로 셈 (DB 왕복 수 기준).
+ * 테스트 트랜잭션 안이면 커밋 때 나갈 insert/update는 블록 안에서 em.flush() 해야 잡힘.
+ * */
+public final class SqlCapture {
+
+    private SqlCapture() {
+    }
+
+    public static Result capture(Runnable block) {
+        return capture(() -> {
+            block.run();
+            return null;
+        }).result;
+    }
+
+    public static <T> Captured<T> capture(Supplier<T> block) {
+        QueryMetricsContext.startCapture();
+        T value;
+        List<String> statements;
+        try {
+            value = block.get();
+        } finally {
+            statements = QueryMetricsContext.stopCapture();
+        }
+        return new Captured<>(value, new Result(statements));
+    }
+
+    public static final class Captured<T> {
+        private final T value;
+        private final Result result;
+
+        private Captured(T value, Result result) {
+            this.value = value;
+            this.result = result;
+        }
+
+        public T value() {
+            return value;
+        }
+
+        public Result result() {
+            return result;
+        }
+    }
+
+    public static final class Result {
+        private final List<String> statements;
+
+        private Result(List<String> statements) {
+            this.statements = Collections.unmodifiableList(statements);
+        }
+
+        public List<String> statements() {
+            return statements;
+        }
+
+        public int count() {
+            return statements.size();
+        }
+
+        public long selects() {
+            return countStartingWith("select");
+        }
+
+        public long inserts() {
+            return countStartingWith("insert");
+        }
+
+        public long updates() {
+            return countStartingWith("update");
+        }
+
+        public long deletes() {
+            return countStartingWith("delete");
+        }
+
+        private long countStartingWith(String keyword) {
+            return statements.stream()
+                    .filter(sql -> sql.trim().toLowerCase(Locale.ROOT).startsWith(keyword))
+                    .count();
+        }
+
+        @Override
+        public String toString() {
+            return count() + " statements:\n" + String.join("\n", statements);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Delivery;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.metrics.SqlCapture;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Delivery.order (mappedBy 쪽 @OneToOne)가 바이트코드 확장으로 실제로 지연 로딩되는지
+ * 확장이 빠지면 delivery를 조회할 때 orders select가 같이 나가서 실패함
+ * */
+@SpringBootTest
+class DeliveryLazyLoadingTest {
+
+    @Autowired OrderService orderService;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+    @Autowired EntityManagerFactory emf;
+
+    @Test
+    void 배송_조회는_쿼리_1번() {
+        //given
+        Long orderId = createOrder();
+        EntityManager em = emf.createEntityManager();
+        try {
+            Long deliveryId = em.find(Order.class, orderId).getDelivery().getId();     // 프록시 id라서 delivery select 없음
+            em.clear();
+
+            //when
+            SqlCapture.Captured<Delivery> captured = SqlCapture.capture(() -> em.find(Delivery.class, deliveryId));
+            Delivery delivery = captured.value();
+
+            //then
+            assertThat(captured.result().count()).as(captured.result().toString()).isEqualTo(1);
+            assertThat(Hibernate.isPropertyInitialized(delivery, "order")).isFalse();
+
+            // 접근하는 시점에 조회
+            SqlCapture.Captured<Long> access = SqlCapture.capture(() -> delivery.getOrder().getId());
+            assertThat(access.value()).isEqualTo(orderId);
+            assertThat(access.result().selects()).as(access.result().toString()).isEqualTo(1);
+        } finally {
+            em.close();
+        }
+    }
+
+    private Long createOrder() {
+        Member member = new Member();
+        member.setName("lazy-delivery-" + System.nanoTime());
+        member.setAddress(new Address("서울", "강가", "12345"));
+        Long memberId = memberService.join(member);
+
+        Book book = new Book();
+        book.setName("lazy-delivery-book");
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        itemService.saveItem(book);
+
+        return orderService.order(memberId, book.getId(), 1);
+    }
+}
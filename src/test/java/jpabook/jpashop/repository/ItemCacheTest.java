@@ -0,0 +1,91 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Item 2차 캐시
+ * 캐시는 트랜잭션(영속성 컨텍스트)을 넘어서 쓰이는 거라 테스트도 서비스 호출마다 커밋되게 @Transactional 없이
+ * */
+@SpringBootTest
+class ItemCacheTest {
+
+    @Autowired ItemService itemService;
+    @Autowired MemberService memberService;
+    @Autowired OrderService orderService;
+    @Autowired EntityManagerFactory emf;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void enableStatistics() {
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void disableStatistics() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void 상품_조회는_2차_캐시에서() {
+        //given
+        Long bookId = createBook("cache-book", 10);
+        statistics.clear();
+
+        //when
+        itemService.findOne(bookId);
+        itemService.findOne(bookId);
+
+        //then
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getDomainDataRegionStatistics("item").getHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    void 재고_차감_후에는_캐시가_아니라_새_재고를_읽는다() {
+        //given
+        Long memberId = createMember("cache-member");
+        Long bookId = createBook("cache-stock-book", 10);
+        itemService.findOne(bookId);        // 캐시에 올려 둠
+
+        //when
+        orderService.order(memberId, bookId, 3);
+
+        //then
+        assertThat(itemService.findOne(bookId).getStockQuantity()).isEqualTo(7);
+    }
+
+    private Long createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "강가", "12345"));
+        return memberService.join(member);
+    }
+
+    private Long createBook(String name, int stockQuantity) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(10000);
+        book.setStockQuantity(stockQuantity);
+        itemService.saveItem(book);
+        return book.getId();
+    }
+}
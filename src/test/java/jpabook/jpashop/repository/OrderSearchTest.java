@@ -0,0 +1,81 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.*;
+import jpabook.jpashop.domain.item.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * 주문 검색 3가지 방식 (문자열 JPQL / Criteria / 미리 만들어 둔 named query)이 같은 결과를 주는지
+ * 방식별 호출 비용 비교는 src/jmh의 OrderSearchBenchmark
+ * */
+@SpringBootTest
+@Transactional
+class OrderSearchTest {
+
+    private static final String MEMBER_NAME = "order-search";
+
+    @Autowired EntityManager em;
+    @Autowired OrderRepository orderRepository;
+    @Autowired OrderSearchQueryTemplates orderSearchQueryTemplates;
+
+    private List<OrderSearch> searches;
+
+    @BeforeEach
+    void setUp() {
+        Member member = new Member();
+        member.setName(MEMBER_NAME);
+        member.setAddress(new Address("서울", "강가", "12345"));
+        em.persist(member);
+
+        Book book = new Book();
+        book.setName("order-search-book");
+        book.setPrice(10000);
+        book.setStockQuantity(1000);
+        em.persist(book);
+
+        for (int i = 0; i < 20; i++) {
+            Delivery delivery = new Delivery();
+            delivery.setAddress(member.getAddress());
+            Order order = Order.createOrder(member, delivery, OrderItem.createOrderItem(book, 10000, 1));
+            if (i % 2 == 0) {
+                order.setStatus(OrderStatus.CANCEL);
+            }
+            em.persist(order);
+        }
+        em.flush();
+        em.clear();
+
+        searches = Arrays.asList(
+                search(null, null),
+                search(OrderStatus.ORDER, null),
+                search(null, MEMBER_NAME),
+                search(OrderStatus.CANCEL, MEMBER_NAME));
+    }
+
+    @Test
+    void 검색_방식별_결과가_같다() {
+        // 회원 이름: findAllByString은 =, 나머지는 like 지만 여기서는 이름이 유일
+        for (OrderSearch orderSearch : searches) {
+            int expected = orderRepository.findAllByCriteria(orderSearch).size();
+            assertThat(orderRepository.findAllByString(orderSearch)).hasSize(expected);
+            assertThat(orderSearchQueryTemplates.findAll(orderSearch)).hasSize(expected);
+        }
+    }
+
+    private OrderSearch search(OrderStatus status, String memberName) {
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setOrderStatus(status);
+        orderSearch.setMemberName(memberName);
+        return orderSearch;
+    }
+}
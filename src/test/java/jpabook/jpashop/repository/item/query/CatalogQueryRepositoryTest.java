@@ -0,0 +1,96 @@
+package jpabook.jpashop.repository.item.query;
+
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.ItemRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * 카탈로그 페이지 크기가 커져도 카테고리 조회 쿼리 수는 그대로인지
+ * */
+@SpringBootTest
+@Transactional
+class CatalogQueryRepositoryTest {
+
+    private static final int ITEM_COUNT = 60;
+
+    @Autowired EntityManager em;
+    @Autowired CatalogQueryRepository catalogQueryRepository;
+    @Autowired ItemRepository itemRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        Category fiction = createCategory("catalog-fiction");
+        Category bestseller = createCategory("catalog-bestseller");
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            Book book = new Book();
+            book.setName("catalog-book-" + i);
+            book.setPrice(10000);
+            book.setStockQuantity(10);
+            em.persist(book);
+            fiction.getItems().add(book);
+            bestseller.getItems().add(book);
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @AfterEach
+    void disableStatistics() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void DTO_조회는_페이지_크기와_상관없이_쿼리_2번() {
+        assertThat(countStatements(() -> assertThat(catalogQueryRepository.findCatalogPage(0, 5)).hasSize(5))).isEqualTo(2);
+        assertThat(countStatements(() -> assertThat(catalogQueryRepository.findCatalogPage(0, 50)).hasSize(50))).isEqualTo(2);
+    }
+
+    @Test
+    void 엔티티_조회도_카테고리는_batch_fetch로_쿼리_수가_일정() {
+        long few = countStatements(() -> touchCategories(itemRepository.findPage(0, 5)));
+        long many = countStatements(() -> touchCategories(itemRepository.findPage(0, 50)));
+
+        assertThat(many).isEqualTo(few);
+    }
+
+    private long countStatements(Runnable block) {
+        em.clear();
+        statistics.clear();
+        block.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    // 화면에서 상품마다 카테고리 이름을 그릴 때처럼
+    private void touchCategories(List<Item> items) {
+        for (Item item : items) {
+            item.getCategories().forEach(Category::getName);
+        }
+    }
+
+    private Category createCategory(String name) {
+        Category category = new Category();
+        category.setName(name);
+        em.persist(category);
+        category.assignPath();
+        return category;
+    }
+}
@@ -0,0 +1,95 @@
+package jpabook.jpashop.repository.item.query;
+
+import jpabook.jpashop.domain.item.Album;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Movie;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * 상품 종류별 검색: 조건, 정렬, 페이징 + 엔티티를 영속성 컨텍스트에 올리지 않는지
+ * */
+@SpringBootTest
+@Transactional
+class CatalogSearchTest {
+
+    @Autowired EntityManager em;
+    @Autowired CatalogQueryRepository catalogQueryRepository;
+
+    private String prefix;
+
+    @BeforeEach
+    void setUp() {
+        prefix = "search-" + System.nanoTime();
+        persistBook(prefix + "-kim-b", "isbn-" + prefix + "-1");
+        persistBook(prefix + "-kim-a", "isbn-" + prefix + "-2");
+        persistBook(prefix + "-lee", "isbn-" + prefix + "-3");
+        persistBook(prefix + "%-percent", "isbn-" + prefix + "-4");
+
+        Album album = new Album();
+        album.setName("album");
+        album.setArtist(prefix + "-artist");
+        em.persist(album);
+
+        Movie movie = new Movie();
+        movie.setName("movie");
+        movie.setDirector(prefix + "-director");
+        movie.setActor("actor");
+        em.persist(movie);
+
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void 저자_앞부분으로_검색하고_저자순_페이징() {
+        List<CatalogBookQueryDto> firstPage = catalogQueryRepository.searchBooks(prefix + "-kim", null, 0, 1);
+        List<CatalogBookQueryDto> secondPage = catalogQueryRepository.searchBooks(prefix + "-kim", null, 1, 1);
+
+        assertThat(firstPage).extracting(CatalogBookQueryDto::getAuthor).containsExactly(prefix + "-kim-a");
+        assertThat(secondPage).extracting(CatalogBookQueryDto::getAuthor).containsExactly(prefix + "-kim-b");
+        assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isZero();     // DTO라 엔티티를 안 만듦
+    }
+
+    @Test
+    void ISBN은_정확히_일치() {
+        List<CatalogBookQueryDto> books = catalogQueryRepository.searchBooks(null, "isbn-" + prefix + "-3", 0, 20);
+
+        assertThat(books).extracting(CatalogBookQueryDto::getAuthor).containsExactly(prefix + "-lee");
+    }
+
+    @Test
+    void 검색어의_퍼센트는_글자로_취급() {
+        List<CatalogBookQueryDto> books = catalogQueryRepository.searchBooks(prefix + "%", null, 0, 20);
+
+        assertThat(books).extracting(CatalogBookQueryDto::getAuthor).containsExactly(prefix + "%-percent");
+    }
+
+    @Test
+    void 앨범과_영화는_각자_종류만() {
+        assertThat(catalogQueryRepository.searchAlbums(prefix, 0, 20))
+                .extracting(CatalogAlbumQueryDto::getArtist).containsExactly(prefix + "-artist");
+        assertThat(catalogQueryRepository.searchMovies(prefix, 0, 20))
+                .extracting(CatalogMovieQueryDto::getDirector).containsExactly(prefix + "-director");
+        assertThat(catalogQueryRepository.searchBooks(prefix + "-artist", null, 0, 20)).isEmpty();
+    }
+
+    private void persistBook(String author, String isbn) {
+        Book book = new Book();
+        book.setName("book-" + author);
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        book.setAuthor(author);
+        book.setIsbn(isbn);
+        em.persist(book);
+    }
+}
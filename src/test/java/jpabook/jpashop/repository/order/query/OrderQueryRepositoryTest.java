@@ -0,0 +1,146 @@
+package jpabook.jpashop.repository.order.query;
+
+import jpabook.jpashop.domain.*;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.OrderSort;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * 주문 목록 조회는 주문이 몇 건이든 쿼리 수가 같아야 함 (N+1 X)
+ * */
+@SpringBootTest
+@Transactional
+class OrderQueryRepositoryTest {
+
+    @Autowired EntityManager em;
+    @Autowired OrderQueryRepository orderQueryRepository;
+    @Autowired OrderRepository orderRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void enableStatistics() {
+        statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void disableStatistics() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void DTO_조회는_주문_건수와_상관없이_쿼리_2번() {
+        createOrders("dto-3", 3);
+        assertThat(countStatements(() -> orderQueryRepository.findOrderList(searchByName("dto-3")))).isEqualTo(2);
+
+        createOrders("dto-30", 30);
+        List<OrderQueryDto> orders = orderQueryRepository.findOrderList(searchByName("dto-30"));
+        assertThat(orders).hasSize(30);
+        assertThat(orders.get(0).getOrderItems()).hasSize(2);
+        assertThat(countStatements(() -> orderQueryRepository.findOrderList(searchByName("dto-30")))).isEqualTo(2);
+    }
+
+    @Test
+    void 엔티티_조회도_컬렉션은_batch_fetch로_쿼리_수가_일정() {
+        createOrders("entity-3", 3);
+        long few = countStatements(() -> touchGraph(orderRepository.findAllWithMemberDelivery(searchByName("entity-3"))));
+
+        createOrders("entity-30", 30);
+        long many = countStatements(() -> touchGraph(orderRepository.findAllWithMemberDelivery(searchByName("entity-30"))));
+
+        assertThat(many).isEqualTo(few);
+    }
+
+    @Test
+    void DTO_조회도_금액_조건과_정렬이_엔티티_조회와_같음() {
+        //given
+        createOrders("dto-sort", 5);
+        OrderSearch orderSearch = searchByName("dto-sort");
+        orderSearch.setMinTotalPrice(30000);
+        orderSearch.setMaxTotalPrice(30000);
+        orderSearch.setSort(OrderSort.TOTAL_PRICE_ASC);
+        em.flush();
+        em.clear();
+
+        //when
+        List<OrderQueryDto> orders = orderQueryRepository.findOrderList(orderSearch);
+
+        //then
+        List<Long> expected = orderRepository.findAllWithMemberDelivery(orderSearch).stream()
+                .map(Order::getId)
+                .collect(Collectors.toList());
+        assertThat(orders).extracting(OrderQueryDto::getOrderId).containsExactlyElementsOf(expected);
+        assertThat(orders).hasSize(5).allSatisfy(order -> assertThat(order.getTotalPrice()).isEqualTo(30000));
+        assertThat(expected).isSorted();        // 금액이 다 같으면 order_id 오름차순
+
+        orderSearch.setMaxTotalPrice(29999);
+        assertThat(orderQueryRepository.findOrderList(orderSearch)).isEmpty();
+    }
+
+    private long countStatements(Runnable block) {
+        em.flush();
+        em.clear();
+        statistics.clear();
+        block.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    // 화면에서 주문 목록을 그릴 때처럼 연관된 엔티티를 다 건드려 봄
+    private void touchGraph(List<Order> orders) {
+        for (Order order : orders) {
+            order.getMember().getName();
+            order.getDelivery().getAddress();
+            order.getOrderItems().forEach(orderItem -> orderItem.getItem().getName());
+        }
+    }
+
+    private OrderSearch searchByName(String memberName) {
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName(memberName);
+        return orderSearch;
+    }
+
+    private void createOrders(String memberName, int count) {
+        Member member = new Member();
+        member.setName(memberName);
+        member.setAddress(new Address("서울", "강가", "12345"));
+        em.persist(member);
+
+        Book book1 = createBook(memberName + "-book1");
+        Book book2 = createBook(memberName + "-book2");
+
+        for (int i = 0; i < count; i++) {
+            Delivery delivery = new Delivery();
+            delivery.setAddress(member.getAddress());
+            Order order = Order.createOrder(member, delivery,
+                    OrderItem.createOrderItem(book1, 10000, 1),
+                    OrderItem.createOrderItem(book2, 20000, 1));
+            em.persist(order);
+        }
+    }
+
+    private Book createBook(String name) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(10000);
+        book.setStockQuantity(1000);
+        em.persist(book);
+        return book;
+    }
+}
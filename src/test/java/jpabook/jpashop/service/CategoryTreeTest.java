@@ -0,0 +1,164 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/*
+ * 카테고리 트리 10,000개 (한 노드당 자식 10개, 깊이 5 -> 11,111개)
+ * parent/child로 한 단계씩 내려가는 방식 vs path 하위 트리 조회 한 번 -> 쿼리 수로 비교
+ * 트리는 한 번만 만들어서 커밋해 두고, 테스트마다 트랜잭션은 롤백 (카테고리 이동도 원래대로 돌아감)
+ * 걸리는 시간 비교는 src/jmh의 CategoryTreeBenchmark
+ * */
+@SpringBootTest
+@Transactional
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CategoryTreeTest {
+
+    private static final int FANOUT = 10;
+    private static final int DEPTH = 4;         // 루트 아래 4단계
+    private static final int ITEM_EVERY = 100;  // 잎 노드 100개마다 상품 하나
+
+    @Autowired CategoryService categoryService;
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+    private Long rootId;
+    private int nodeCount;
+    private int itemCount;
+
+    @BeforeAll
+    void buildTree() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            rootId = categoryService.create("root", null);
+            nodeCount = 1;
+            createChildren(rootId, 1);
+        });
+    }
+
+    @BeforeEach
+    void enableStatistics() {
+        statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void disableStatistics() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void 하위_카테고리_전체_조회() {
+        // parent/child로 한 단계씩 (지연 로딩, batch fetch size만큼 묶임)
+        long[] walkStatements = new long[1];
+        List<Category> walked = countStatements(walkStatements, () -> {
+            List<Category> result = new ArrayList<>();
+            collectChildren(em.find(Category.class, rootId), result);
+            return result;
+        });
+
+        // path로 한 번에
+        long[] pathStatements = new long[1];
+        List<Category> descendants = countStatements(pathStatements, () -> categoryService.findDescendants(rootId));
+
+        assertThat(descendants).hasSize(nodeCount - 1);
+        assertThat(walked).hasSize(nodeCount - 1);
+        assertThat(pathStatements[0]).isLessThanOrEqualTo(2);      // 루트 조회 + 하위 트리 조회
+        assertThat(walkStatements[0]).isGreaterThan(pathStatements[0]);
+    }
+
+    @Test
+    void 하위_트리_상품_전체_조회() {
+        long[] statements = new long[1];
+        List<Item> items = countStatements(statements, () -> categoryService.findItemsInSubtree(rootId));
+
+        assertThat(items).hasSize(itemCount);
+        assertThat(statements[0]).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void 카테고리를_옮기면_하위_트리_path도_같이_바뀐다() {
+        //given
+        Category root = em.find(Category.class, rootId);
+        Category from = root.getChild().get(0);
+        Category to = root.getChild().get(1);
+        Long fromId = from.getId();
+        Category grandChild = from.getChild().get(0);       // 옮기기 전에 영속성 컨텍스트에 올라와 있던 하위 카테고리
+        int subtreeSize = categoryService.findDescendants(fromId).size();
+        int targetSize = categoryService.findDescendants(to.getId()).size();
+
+        //when
+        categoryService.move(fromId, to.getId());
+
+        //then
+        String movedPath = "/" + rootId + "/" + to.getId() + "/" + fromId + "/";
+        assertThat(from.getPath()).isEqualTo(movedPath);
+        assertThat(grandChild.getPath()).isEqualTo(movedPath + grandChild.getId() + "/");     // clear 하지 않아도 새 path
+
+        em.flush();
+        em.clear();
+        assertThat(categoryService.findOne(fromId).getPath()).isEqualTo(movedPath);
+        assertThat(categoryService.findDescendants(to.getId())).hasSize(targetSize + subtreeSize + 1);
+        assertThat(categoryService.findDescendants(rootId)).hasSize(nodeCount - 1);
+        assertThatThrownBy(() -> categoryService.move(to.getId(), fromId))      // 자기 하위로는 못 옮김
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private <T> List<T> countStatements(long[] statements, Supplier<List<T>> query) {
+        em.clear();
+        statistics.clear();
+        List<T> result = query.get();
+        statements[0] = statistics.getPrepareStatementCount();
+        return result;
+    }
+
+    private void collectChildren(Category category, List<Category> result) {
+        for (Category child : category.getChild()) {
+            result.add(child);
+            collectChildren(child, result);
+        }
+    }
+
+    private void createChildren(Long parentId, int depth) {
+        for (int i = 0; i < FANOUT; i++) {
+            Long childId = categoryService.create("category-" + nodeCount, parentId);
+            nodeCount++;
+            if (depth < DEPTH) {
+                createChildren(childId, depth + 1);
+            } else if (nodeCount % ITEM_EVERY == 0) {
+                addBook(childId);
+            }
+        }
+    }
+
+    private void addBook(Long categoryId) {
+        Book book = new Book();
+        book.setName("category-book-" + itemCount);
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        em.persist(book);
+        categoryService.findOne(categoryId).getItems().add(book);
+        itemCount++;
+    }
+}
@@ -0,0 +1,106 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.repository.MemberRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+
+/*
+ * joinAll은 청크마다 따로 커밋하기 때문에 테스트도 @Transactional 없이 실제로 커밋함.
+ * 그래서 테스트마다 이름 앞에 다른 접두어를 붙임 (member.name은 unique).
+ * */
+@SpringBootTest
+class MemberImportTest {
+
+    @Autowired MemberService memberService;
+    @SpyBean MemberRepository memberRepository;
+    @Autowired MemberProperties memberProperties;
+
+    private int originalChunkSize;
+
+    @BeforeEach
+    void smallChunks() {
+        originalChunkSize = memberProperties.getImportChunkSize();
+        memberProperties.setImportChunkSize(100);       // 청크 경계(커밋)를 여러 번 지나가게
+    }
+
+    @AfterEach
+    void restoreChunkSize() {
+        memberProperties.setImportChunkSize(originalChunkSize);
+    }
+
+    @Test
+    void 일괄_가입은_중복을_건너뛰고_나머지는_가입() {
+        //given
+        memberService.join(member("import-0"));                          // 이미 가입된 이름
+        Stream<Member> members = Stream.concat(
+                IntStream.range(0, 250).mapToObj(i -> member("import-" + i)),
+                Stream.of(member("import-7"), member("import-199")));   // 파일 안에서 중복
+
+        //when
+        MemberImportResult result = memberService.joinAll(members);
+
+        //then
+        assertThat(result.getJoinedCount()).isEqualTo(249);
+        assertThat(result.getDuplicateNames()).containsExactlyInAnyOrder("import-0", "import-7", "import-199");
+        assertThat(memberRepository.findByName("import-249")).hasSize(1);
+        assertThat(memberRepository.findByName("import-7")).hasSize(1);
+    }
+
+    @Test
+    void 중복_확인과_flush_사이에_먼저_가입된_이름은_중복으로_빠지고_나머지는_가입() throws Exception {
+        //given
+        memberService.join(member("race-existing"));        // bloom filter가 "있을 수도 있음" -> in 쿼리가 나가게
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        AtomicBoolean raced = new AtomicBoolean();
+        doAnswer(invocation -> {
+            Object names = invocation.callRealMethod();
+            Collection<?> checked = invocation.getArgument(0);
+            if (checked.contains("race-existing") && raced.compareAndSet(false, true)) {
+                // 중복 확인은 끝났고 아직 flush 전 -> 다른 트랜잭션에서 같은 이름을 먼저 커밋
+                other.submit(() -> memberService.join(member("race-late"))).get();
+            }
+            return names;
+        }).when(memberRepository).findNamesIn(anyCollection());
+
+        Stream<Member> members = Stream.concat(
+                Stream.of(member("race-existing"), member("race-late")),
+                IntStream.range(0, 10).mapToObj(i -> member("race-" + i)));
+
+        //when
+        MemberImportResult result;
+        try {
+            result = memberService.joinAll(members);
+        } finally {
+            other.shutdownNow();
+        }
+
+        //then
+        assertThat(raced).isTrue();
+        assertThat(result.getJoinedCount()).isEqualTo(10);
+        assertThat(result.getDuplicateNames()).containsExactlyInAnyOrder("race-existing", "race-late");
+        assertThat(memberRepository.findByName("race-late")).hasSize(1);
+        assertThat(memberRepository.findByName("race-9")).hasSize(1);
+    }
+
+    private Member member(String name) {
+        Member member = new Member();
+        member.setName(name);
+        return member;
+    }
+}
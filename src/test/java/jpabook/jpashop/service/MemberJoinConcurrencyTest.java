@@ -0,0 +1,73 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.repository.MemberRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * 같은 이름으로 동시에 가입하면 한 명만 가입되고 나머지는 IllegalStateException
+ * 스레드마다 실제로 커밋해야 unique 제약에서 걸리기 때문에 @Transactional을 붙이지 않음.
+ * */
+@SpringBootTest
+class MemberJoinConcurrencyTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired MemberService memberService;
+    @Autowired MemberRepository memberRepository;
+    @Autowired MemberNameFilter memberNameFilter;
+
+    @Test
+    void 동시_가입은_unique_제약으로_한_명만() throws Exception {
+        //given
+        String name = "concurrent-join";
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> futures = new ArrayList<>();
+
+        //when
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                Member member = new Member();
+                member.setName(name);
+                return memberService.join(member);
+            }));
+        }
+        start.countDown();
+
+        int joined = 0;
+        int rejected = 0;
+        try {
+            for (Future<Long> future : futures) {
+                try {
+                    future.get();
+                    joined++;
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(IllegalStateException.class);
+                    rejected++;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        //then
+        assertThat(joined).isEqualTo(1);
+        assertThat(rejected).isEqualTo(THREADS - 1);
+        assertThat(memberRepository.findByName(name)).hasSize(1);
+        assertThat(memberNameFilter.mightContain(name)).isTrue();
+    }
+}
@@ -0,0 +1,114 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.metrics.SqlCapture;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSearch;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * 회원 이름 n-gram 색인: 부분 검색 결과가 like와 같은지, 주문 검색이 like 대신 member_id in (...)으로 나가는지
+ * */
+@SpringBootTest
+class MemberNameIndexTest {
+
+    @Autowired MemberNameIndex memberNameIndex;
+    @Autowired MemberService memberService;
+    @Autowired OrderService orderService;
+    @Autowired ItemService itemService;
+    @Autowired OrderRepository orderRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @Test
+    void 가입하면_바로_부분_검색됨() {
+        //given
+        String prefix = "ngram-" + System.nanoTime();
+        Long alpha = join(prefix + "-alpha");
+        Long alpine = join(prefix + "-alpine");
+        Long beta = join(prefix + "-beta");
+
+        //when, then
+        assertThat(memberNameIndex.findIdsContaining(prefix + "-alp")).hasValueSatisfying(ids ->
+                assertThat(ids).containsExactlyInAnyOrder(alpha, alpine));
+        assertThat(memberNameIndex.findIdsContaining(prefix)).hasValueSatisfying(ids ->
+                assertThat(ids).containsExactlyInAnyOrder(alpha, alpine, beta));
+        assertThat(memberNameIndex.findIdsContaining(prefix + "-gamma")).hasValueSatisfying(ids ->
+                assertThat(ids).isEmpty());
+    }
+
+    @Test
+    void 가입이_롤백되면_색인에_안_들어감() {
+        //given
+        String prefix = "ngram-rollback-" + System.nanoTime();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        //when
+        transactionTemplate.executeWithoutResult(status -> {
+            join(prefix + "-alpha");
+            assertThat(memberNameIndex.findIdsContaining(prefix)).hasValueSatisfying(ids ->
+                    assertThat(ids).isEmpty());     // 커밋 전에는 아직 안 보임
+            status.setRollbackOnly();
+        });
+
+        //then
+        assertThat(memberNameIndex.findIdsContaining(prefix)).hasValueSatisfying(ids ->
+                assertThat(ids).isEmpty());
+    }
+
+    @Test
+    void 주문_검색은_회원_id_in_쿼리로() {
+        //given
+        String prefix = "ngram-order-" + System.nanoTime();
+        Long bookId = createBook();
+        orderService.order(join(prefix + "-kim"), bookId, 1);
+        orderService.order(join(prefix + "-kimura"), bookId, 1);
+        orderService.order(join(prefix + "-lee"), bookId, 1);
+
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName(prefix + "-kim");
+
+        //when
+        SqlCapture.Captured<List<Order>> captured = SqlCapture.capture(() -> orderService.findOrders(orderSearch));
+
+        //then - like로 찾은 것과 같은 주문
+        Set<Long> expected = orderRepository.findAllByCriteria(orderSearch).stream()
+                .map(Order::getId)
+                .collect(Collectors.toSet());
+        assertThat(captured.value()).extracting(Order::getId).containsExactlyInAnyOrderElementsOf(expected).hasSize(2);
+
+        List<String> statements = captured.result().statements();
+        assertThat(statements).as(captured.result().toString())
+                .anyMatch(sql -> sql.toLowerCase(Locale.ROOT).contains("member_id in ("))
+                .noneMatch(sql -> sql.toLowerCase(Locale.ROOT).contains(" like "));
+    }
+
+    private Long join(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "강가", "12345"));
+        return memberService.join(member);
+    }
+
+    private Long createBook() {
+        Book book = new Book();
+        book.setName("ngram-book");
+        book.setPrice(10000);
+        book.setStockQuantity(100);
+        itemService.saveItem(book);
+        return book.getId();
+    }
+}
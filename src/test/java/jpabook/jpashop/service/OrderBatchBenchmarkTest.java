@@ -0,0 +1,88 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * 단건 주문 N번 vs 장바구니 주문 1번 비교
+ * 테스트 트랜잭션 안에서 돌리면 단건 주문도 마지막 flush 때 한꺼번에 batch로 나가버리기 때문에
+ * 일부러 @Transactional을 붙이지 않음 -> 서비스 호출마다 실제로 커밋됨.
+ * */
+@SpringBootTest
+class OrderBatchBenchmarkTest {
+
+    private static final int LINE_COUNT = 30;
+
+    @Autowired OrderService orderService;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+    @Autowired EntityManagerFactory emf;
+
+    @Test
+    void 장바구니_주문은_단건_주문보다_DB_왕복이_적다() {
+        //given
+        Long memberId = createMember("batch-benchmark");
+        List<Long> itemIds = createBooks(LINE_COUNT);
+        List<OrderLine> orderLines = itemIds.stream()
+                .map(itemId -> new OrderLine(itemId, 1))
+                .collect(Collectors.toList());
+
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        try {
+            //when - 단건 주문 30번
+            statistics.clear();
+            for (Long itemId : itemIds) {
+                orderService.order(memberId, itemId, 1);
+            }
+            long singleStatements = statistics.getPrepareStatementCount();
+            long singleTransactions = statistics.getTransactionCount();
+
+            //when - 장바구니 주문 1번
+            statistics.clear();
+            orderService.order(memberId, orderLines);
+            long cartStatements = statistics.getPrepareStatementCount();
+            long cartTransactions = statistics.getTransactionCount();
+
+            //then
+            assertThat(singleTransactions).isGreaterThan(cartTransactions);
+            assertThat(cartTransactions).isEqualTo(1);
+            assertThat(cartStatements).isLessThan(singleStatements);
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    private Long createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "강가", "12345"));
+        return memberService.join(member);
+    }
+
+    private List<Long> createBooks(int count) {
+        List<Long> itemIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Book book = new Book();
+            book.setName("batch-book-" + i);
+            book.setPrice(10000);
+            book.setStockQuantity(100);
+            itemService.saveItem(book);
+            itemIds.add(book.getId());
+        }
+        return itemIds;
+    }
+}
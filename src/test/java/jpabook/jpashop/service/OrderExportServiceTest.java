@@ -0,0 +1,185 @@
+package jpabook.jpashop.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSearch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/*
+ * 주문 내보내기 (CSV / NDJSON, GET /api/orders/export)
+ * MockMvc 요청도 테스트와 같은 스레드에서 돌아서 테스트 트랜잭션 안의 데이터가 보임
+ * */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class OrderExportServiceTest {
+
+    private static final String CSV_HEADER = "order_id,order_date,status,member_name,order_item_id,item_name,order_price,count";
+    private static final LocalDateTime ORDER_DATE = LocalDateTime.of(2021, 3, 4, 5, 6, 7);
+    private static final String MULTI_LINE_BOOK = "multi\nline book";      // 줄바꿈이 들어간 상품 이름
+
+    @Autowired OrderExportService orderExportService;
+    @Autowired OrderService orderService;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+    @Autowired OrderRepository orderRepository;
+    @Autowired ObjectMapper objectMapper;
+    @Autowired EntityManager em;
+    @Autowired MockMvc mockMvc;
+
+    private long suffix;
+    private String quotedName;      // 쉼표, 따옴표가 들어간 회원 이름
+    private String plainName;
+    private Long cartOrderId;
+    private Long canceledOrderId;
+    private Long otherOrderId;
+
+    @BeforeEach
+    void setUp() {
+        suffix = System.nanoTime();
+        quotedName = "export, \"quoted\" " + suffix;
+        plainName = "export-plain-" + suffix;
+        Long quotedMemberId = createMember(quotedName);
+        Long plainMemberId = createMember(plainName);
+        Long multiLineBookId = createBook(MULTI_LINE_BOOK, 10000);
+        Long plainBookId = createBook("plain-book", 3000);
+
+        cartOrderId = orderService.order(quotedMemberId,
+                Arrays.asList(new OrderLine(multiLineBookId, 2), new OrderLine(plainBookId, 1)));
+        canceledOrderId = orderService.order(quotedMemberId, plainBookId, 1);
+        orderService.cancelOrder(canceledOrderId);
+        otherOrderId = orderService.order(plainMemberId, multiLineBookId, 1);
+
+        for (Long orderId : Arrays.asList(cartOrderId, canceledOrderId, otherOrderId)) {
+            orderRepository.findOne(orderId).setOrderDate(ORDER_DATE);     // 출력 비교용으로 고정
+        }
+        em.flush();
+    }
+
+    @Test
+    void CSV는_헤더_다음에_주문상품마다_한_줄_특수문자가_있으면_따옴표로() throws Exception {
+        //given
+        OrderSearch orderSearch = search(quotedName, OrderStatus.ORDER);    // 취소된 주문, 다른 회원 주문은 빠짐
+        String escapedName = "\"export, \"\"quoted\"\" " + suffix + "\"";
+        StringBuilder expected = new StringBuilder(CSV_HEADER).append('\n');
+        orderRepository.findOne(cartOrderId).getOrderItems().stream()
+                .sorted(Comparator.comparing(OrderItem::getId))
+                .forEach(orderItem -> expected.append(cartOrderId + ",2021-03-04T05:06:07,ORDER," + escapedName + ","
+                        + orderItem.getId() + ","
+                        + (MULTI_LINE_BOOK.equals(orderItem.getItem().getName()) ? "\"multi\nline book\",10000,2" : "plain-book,3000,1")
+                        + "\n"));
+
+        //when
+        StringWriter writer = new StringWriter();
+        orderExportService.export(orderSearch, OrderExportFormat.CSV, writer);
+
+        //then
+        assertThat(writer.toString()).isEqualTo(expected.toString());
+    }
+
+    @Test
+    void NDJSON은_한_줄에_JSON_하나() throws Exception {
+        //given
+        OrderSearch orderSearch = search(quotedName, OrderStatus.CANCEL);
+
+        //when
+        StringWriter writer = new StringWriter();
+        orderExportService.export(orderSearch, OrderExportFormat.NDJSON, writer);
+
+        //then
+        String[] lines = writer.toString().split("\n");
+        assertThat(lines).hasSize(1);
+        JsonNode row = objectMapper.readTree(lines[0]);
+        assertThat(row.get("orderId").asLong()).isEqualTo(canceledOrderId);
+        assertThat(row.get("orderDate").asText()).isEqualTo("2021-03-04T05:06:07");
+        assertThat(row.get("orderStatus").asText()).isEqualTo("CANCEL");
+        assertThat(row.get("memberName").asText()).isEqualTo(quotedName);
+        assertThat(row.get("itemName").asText()).isEqualTo("plain-book");
+        assertThat(row.get("orderPrice").asInt()).isEqualTo(3000);
+        assertThat(row.get("count").asInt()).isEqualTo(1);
+    }
+
+    @Test
+    void API는_형식에_맞는_헤더와_검색_조건이_적용된_본문() throws Exception {
+        //when
+        MockHttpServletResponse response = mockMvc.perform(get("/api/orders/export")
+                        .param("format", "CSV")
+                        .param("memberName", plainName))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        //then
+        assertThat(response.getContentType()).startsWith("text/csv");
+        assertThat(response.getHeader("Content-Disposition")).isEqualTo("attachment; filename=\"orders.csv\"");
+        OrderItem orderItem = orderRepository.findOne(otherOrderId).getOrderItems().get(0);
+        assertThat(response.getContentAsString()).isEqualTo(CSV_HEADER + "\n" +
+                otherOrderId + ",2021-03-04T05:06:07,ORDER," + plainName + "," + orderItem.getId() +
+                ",\"multi\nline book\",10000,1\n");
+    }
+
+    @Test
+    void API_형식은_소문자로도_받고_모르는_형식은_400() throws Exception {
+        //when
+        MockHttpServletResponse response = mockMvc.perform(get("/api/orders/export")
+                        .param("format", "ndjson")
+                        .param("memberName", plainName))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        //then
+        assertThat(response.getContentType()).startsWith("application/x-ndjson");
+        assertThat(response.getHeader("Content-Disposition")).isEqualTo("attachment; filename=\"orders.ndjson\"");
+        String[] lines = response.getContentAsString().split("\n");
+        assertThat(lines).hasSize(1);
+        assertThat(objectMapper.readTree(lines[0]).get("orderId").asLong()).isEqualTo(otherOrderId);
+
+        mockMvc.perform(get("/api/orders/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private OrderSearch search(String memberName, OrderStatus orderStatus) {
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName(memberName);
+        orderSearch.setOrderStatus(orderStatus);
+        return orderSearch;
+    }
+
+    private Long createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "강가", "12345"));
+        return memberService.join(member);
+    }
+
+    private Long createBook(String name, int price) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(price);
+        book.setStockQuantity(100);
+        itemService.saveItem(book);
+        return book.getId();
+    }
+}
@@ -0,0 +1,102 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/*
+ * 비동기 주문 접수 (group commit)
+ * 재고보다 주문을 많이 넣어서 재고 부족 주문만 실패하고 나머지는 그대로 커밋되는지 확인
+ * */
+@SpringBootTest(properties = "jpashop.order.intake.enabled=true")
+class OrderIntakeQueueTest {
+
+    private static final int STOCK = 40;
+    private static final int ORDERS = 50;
+
+    @Autowired OrderIntakeQueue orderIntakeQueue;
+    @Autowired MemberService memberService;
+    @Autowired OrderService orderService;
+    @Autowired ItemService itemService;
+    @Autowired EntityManagerFactory emf;
+
+    @Test
+    void 재고_부족_주문만_실패하고_나머지는_커밋() throws Exception {
+        //given
+        Member member = new Member();
+        member.setName("intake-member");
+        member.setAddress(new Address("서울", "강가", "12345"));
+        Long memberId = memberService.join(member);
+
+        Book book = new Book();
+        book.setName("intake-book");
+        book.setPrice(10000);
+        book.setStockQuantity(STOCK);
+        itemService.saveItem(book);
+
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        //when
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            futures.add(orderIntakeQueue.submit(memberId, book.getId(), 1));
+        }
+
+        int placed = 0;
+        int outOfStock = 0;
+        for (CompletableFuture<Long> future : futures) {
+            try {
+                assertThat(future.get(10, TimeUnit.SECONDS)).isNotNull();
+                placed++;
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(NotEnoughStockException.class);
+                outOfStock++;
+            }
+        }
+        long transactions = statistics.getTransactionCount();
+        statistics.setStatisticsEnabled(false);
+
+        //then
+        assertThat(transactions).as("주문 여러 건이 한 트랜잭션으로 묶여야 함").isLessThan(ORDERS);
+        assertThat(placed).isEqualTo(STOCK);
+        assertThat(outOfStock).isEqualTo(ORDERS - STOCK);
+        assertThat(itemService.findOne(book.getId()).getStockQuantity()).isZero();
+    }
+
+    @Test
+    void 종료할_때_처리_못한_주문과_종료_후_접수는_거절로_완료() throws Exception {
+        //given - writer 없이 (start를 안 부름) 대기열에만 쌓임
+        OrderIntakeQueue stopped = new OrderIntakeQueue(orderService, new OrderProperties());
+        CompletableFuture<Long> pending = stopped.submit(1L, 1L, 1);
+
+        //when
+        stopped.stop();
+        CompletableFuture<Long> afterStop = stopped.submit(1L, 1L, 1);
+
+        //then
+        assertThatThrownBy(() -> pending.get(1, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(RejectedExecutionException.class);
+        assertThatThrownBy(() -> afterStop.get(1, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(RejectedExecutionException.class);
+        assertThat(stopped.pending()).isZero();
+    }
+}
@@ -0,0 +1,123 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.OrderCursor;
+import jpabook.jpashop.repository.OrderPage;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSearch;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/*
+ * 주문 목록 keyset 페이징 (pageToken)
+ * 다른 테스트의 주문과 섞이지 않게 이 테스트에서만 쓰는 주문 금액(PRICE)으로 거름
+ * */
+@SpringBootTest
+@Transactional
+class OrderPagingTest {
+
+    private static final int PRICE = 9173;
+
+    @Autowired OrderService orderService;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+    @Autowired OrderRepository orderRepository;
+    @Autowired EntityManager em;
+
+    @Test
+    void 토큰으로_끝까지_넘기면_조건에_맞는_주문이_빠짐없이_한_번씩() {
+        //given
+        Long memberId = createMember("paging-" + System.nanoTime());
+        Long bookId = createBook(PRICE);
+        Long otherBookId = createBook(PRICE + 1);
+        LocalDateTime base = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Order order = orderRepository.findOne(orderService.order(memberId, bookId, 1));
+            order.setOrderDate(base.plusMinutes(i / 2));        // 두 건씩 같은 주문 시간 -> order_id로 순서가 정해져야 함
+            orders.add(order);
+        }
+        orderService.order(memberId, otherBookId, 1);                   // 금액 조건에서 빠짐
+        orderService.cancelOrder(orders.get(5).getId());                 // 상태 조건에서 빠짐
+        em.flush();
+
+        List<Long> expected = orders.stream()
+                .filter(order -> order.getStatus() == OrderStatus.ORDER)
+                .sorted(Comparator.comparing(Order::getOrderDate).thenComparing(Order::getId).reversed())
+                .map(Order::getId)
+                .collect(Collectors.toList());
+
+        //when
+        List<Long> seen = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String pageToken = null;
+        do {
+            OrderPage page = orderService.findOrders(search(), pageToken, 3);
+            page.getOrders().forEach(order -> seen.add(order.getId()));
+            pageSizes.add(page.getOrders().size());
+            pageToken = page.getNextPageToken();
+        } while (pageToken != null);
+
+        //then
+        assertThat(seen).containsExactlyElementsOf(expected);
+        assertThat(pageSizes).containsExactly(3, 3, 1);
+    }
+
+    @Test
+    void 잘못된_토큰은_IllegalArgumentException() {
+        String notBase64 = "not a token!";
+        String noSeparator = new OrderCursor(LocalDateTime.of(2020, 1, 1, 0, 0), 1L).encode().substring(0, 4);
+
+        assertThatThrownBy(() -> orderService.findOrders(search(), notBase64, 3))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> orderService.findOrders(search(), noSeparator, 3))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void 페이지_크기는_1_이상() {
+        assertThatThrownBy(() -> orderService.findOrders(search(), null, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private OrderSearch search() {
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setOrderStatus(OrderStatus.ORDER);
+        orderSearch.setMinTotalPrice(PRICE);
+        orderSearch.setMaxTotalPrice(PRICE);
+        return orderSearch;
+    }
+
+    private Long createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "강가", "12345"));
+        return memberService.join(member);
+    }
+
+    private Long createBook(int price) {
+        Book book = new Book();
+        book.setName("paging-book");
+        book.setPrice(price);
+        book.setStockQuantity(100);
+        itemService.saveItem(book);
+        return book.getId();
+    }
+}
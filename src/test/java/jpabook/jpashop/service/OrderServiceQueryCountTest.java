@@ -0,0 +1,88 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.metrics.SqlCapture;
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * 주문/검색이 DB를 몇 번 왕복하는지 (늘어나면 테스트 실패)
+ * 커밋 때 나가는 insert/update까지 세야 해서 @Transactional 없이 (서비스 호출마다 커밋)
+ * 시퀀스 조회나 2차 캐시 적재처럼 처음 한 번만 나가는 쿼리는 빼고 보려고 한 번 주문해 두고 잼
+ * */
+@SpringBootTest
+class OrderServiceQueryCountTest {
+
+    @Autowired OrderService orderService;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+    @Autowired OrderQueryRepository orderQueryRepository;
+
+    private Long memberId;
+    private Long bookId;
+
+    @BeforeEach
+    void setUp() {
+        Member member = new Member();
+        member.setName("query-count-" + System.nanoTime());
+        member.setAddress(new Address("서울", "강가", "12345"));
+        memberId = memberService.join(member);
+
+        Book book = new Book();
+        book.setName("query-count-book");
+        book.setPrice(10000);
+        book.setStockQuantity(100);
+        itemService.saveItem(book);
+        bookId = book.getId();
+
+        orderService.order(memberId, bookId, 1);        // 워밍업
+    }
+
+    @Test
+    void 단건_주문() {
+        SqlCapture.Result result = SqlCapture.capture(() -> orderService.order(memberId, bookId, 1)).result();
+
+        // 재고 차감 update 1 + 상품 조회 1 (가격) + orders/delivery/order_item insert 3. 회원은 2차 캐시
+        // + 커밋 직전 매출 집계 update 2 (item_daily_sales, member_monthly_sales jdbc batch 한 번씩. row는 워밍업 주문 때 생김)
+        assertThat(result.count()).as(result.toString()).isLessThanOrEqualTo(7);
+        assertThat(result.updates()).as(result.toString()).isEqualTo(3);
+    }
+
+    @Test
+    void 주문_취소() {
+        Long orderId = orderService.order(memberId, bookId, 1);
+
+        SqlCapture.Result result = SqlCapture.capture(() -> orderService.cancelOrder(orderId));
+
+        // 주문 조회 1 + 배송 1 + 주문상품 1 + 재고 원복 update 1 + 주문 상태 update 1 + 매출 집계 update 2
+        assertThat(result.count()).as(result.toString()).isLessThanOrEqualTo(7);
+    }
+
+    @Test
+    void 주문_검색은_쿼리_1번() {
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName("query-count-");
+
+        SqlCapture.Result result = SqlCapture.capture(() -> orderService.findOrders(orderSearch)).result();
+
+        assertThat(result.count()).as(result.toString()).isEqualTo(1);
+    }
+
+    @Test
+    void 주문_목록_DTO_조회는_쿼리_2번() {
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName("query-count-");
+
+        SqlCapture.Result result = SqlCapture.capture(() -> orderQueryRepository.findOrderList(orderSearch)).result();
+
+        assertThat(result.count()).as(result.toString()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,116 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.OrderSort;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * orders.total_price (주문할 때 저장, 취소하면 0) + 금액 조건/정렬 검색 + 정합성 검사
+ * 정합성 검사는 커밋된 데이터를 봐야 해서 @Transactional 없이
+ * */
+@SpringBootTest
+class OrderTotalPriceTest {
+
+    @Autowired OrderService orderService;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+    @Autowired OrderRepository orderRepository;
+    @Autowired OrderTotalPriceChecker orderTotalPriceChecker;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @Test
+    void 주문_금액은_주문상품_합계_취소하면_0() {
+        //given
+        Long memberId = createMember("total-price-" + System.nanoTime());
+        Long bookId = createBook(10000);
+        Long cheapBookId = createBook(3000);
+
+        //when
+        Long orderId = orderService.order(memberId, Arrays.asList(new OrderLine(bookId, 2), new OrderLine(cheapBookId, 1)));
+
+        //then
+        assertThat(totalPriceOf(orderId)).isEqualTo(23000);
+
+        orderService.cancelOrder(orderId);
+        assertThat(totalPriceOf(orderId)).isZero();
+    }
+
+    @Test
+    void 주문_금액으로_검색하고_정렬() {
+        //given
+        String memberName = "total-price-search-" + System.nanoTime();
+        Long memberId = createMember(memberName);
+        Long bookId = createBook(10000);
+        Long small = orderService.order(memberId, bookId, 1);
+        Long medium = orderService.order(memberId, bookId, 3);
+        Long large = orderService.order(memberId, bookId, 5);
+
+        //when
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName(memberName);
+        orderSearch.setMinTotalPrice(20000);
+        orderSearch.setSort(OrderSort.TOTAL_PRICE_DESC);
+        List<Long> orderIds = orderService.findOrders(orderSearch).stream()
+                .map(Order::getId)
+                .collect(Collectors.toList());
+
+        //then
+        assertThat(orderIds).containsExactly(large, medium);
+        assertThat(orderIds).doesNotContain(small);
+    }
+
+    @Test
+    void 정합성_검사는_어긋난_주문을_찾음() {
+        //given
+        Long memberId = createMember("total-price-check-" + System.nanoTime());
+        Long bookId = createBook(10000);
+        Long consistent = orderService.order(memberId, bookId, 1);
+        Long broken = orderService.order(memberId, bookId, 2);
+        jdbcTemplate.update("update orders set total_price = 1 where order_id = ?", broken);
+
+        //when
+        List<Long> mismatched = orderTotalPriceChecker.check().stream()
+                .map(OrderTotalMismatch::getOrderId)
+                .collect(Collectors.toList());
+
+        //then
+        assertThat(mismatched).contains(broken);
+        assertThat(mismatched).doesNotContain(consistent);
+
+        jdbcTemplate.update("update orders set total_price = 20000 where order_id = ?", broken);     // 다른 테스트에 영향 없게 원복
+    }
+
+    private int totalPriceOf(Long orderId) {
+        return jdbcTemplate.queryForObject("select total_price from orders where order_id = ?", Integer.class, orderId);
+    }
+
+    private Long createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "강가", "12345"));
+        return memberService.join(member);
+    }
+
+    private Long createBook(int price) {
+        Book book = new Book();
+        book.setName("total-price-book");
+        book.setPrice(price);
+        book.setStockQuantity(100);
+        itemService.saveItem(book);
+        return book.getId();
+    }
+}
@@ -0,0 +1,116 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.sales.ItemDailySales;
+import jpabook.jpashop.domain.sales.MemberMonthlySales;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * 주문/취소가 매출 집계 테이블에 바로 반영되는지 + 재구축하면 같은 값이 나오는지
+ * 집계는 커밋 직전에 반영되니까 @Transactional 없이 (서비스 호출마다 커밋)
+ * */
+@SpringBootTest
+class SalesRollupTest {
+
+    @Autowired OrderService orderService;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+    @Autowired SalesReportService salesReportService;
+    @Autowired SalesRollupRebuilder salesRollupRebuilder;
+
+    @Test
+    void 주문하면_더하고_취소하면_뺌() {
+        //given
+        Long memberId = createMember();
+        Long bookId = createBook(1000);
+        Long otherBookId = createBook(500);
+
+        //when
+        Long canceled = orderService.order(memberId, bookId, 2);
+        orderService.order(memberId, bookId, 3);
+        orderService.order(memberId, Arrays.asList(new OrderLine(bookId, 1), new OrderLine(otherBookId, 4)));
+        orderService.cancelOrder(canceled);
+
+        //then
+        ItemDailySales bookSales = itemDailySales(bookId);
+        assertThat(bookSales.getOrderCount()).isEqualTo(2);
+        assertThat(bookSales.getQuantity()).isEqualTo(4);
+        assertThat(bookSales.getAmount()).isEqualTo(4000);
+
+        ItemDailySales otherBookSales = itemDailySales(otherBookId);
+        assertThat(otherBookSales.getOrderCount()).isEqualTo(1);
+        assertThat(otherBookSales.getAmount()).isEqualTo(2000);
+
+        MemberMonthlySales memberSales = memberMonthlySales(memberId);
+        assertThat(memberSales.getOrderCount()).isEqualTo(2);
+        assertThat(memberSales.getAmount()).isEqualTo(6000);
+    }
+
+    @Test
+    void 재구축하면_증분으로_쌓은_값과_같음() throws Exception {
+        //given
+        Long memberId = createMember();
+        Long bookId = createBook(1000);
+        orderService.order(memberId, bookId, 2);
+        orderService.cancelOrder(orderService.order(memberId, bookId, 5));
+        orderService.order(memberId, bookId, 1);
+
+        ItemDailySales incrementalItem = itemDailySales(bookId);
+        MemberMonthlySales incrementalMember = memberMonthlySales(memberId);
+
+        //when
+        int months = salesRollupRebuilder.rebuild();
+
+        //then
+        assertThat(months).isPositive();
+        ItemDailySales rebuiltItem = itemDailySales(bookId);
+        assertThat(rebuiltItem.getOrderCount()).isEqualTo(incrementalItem.getOrderCount()).isEqualTo(2);
+        assertThat(rebuiltItem.getQuantity()).isEqualTo(incrementalItem.getQuantity()).isEqualTo(3);
+        assertThat(rebuiltItem.getAmount()).isEqualTo(incrementalItem.getAmount()).isEqualTo(3000);
+
+        MemberMonthlySales rebuiltMember = memberMonthlySales(memberId);
+        assertThat(rebuiltMember.getOrderCount()).isEqualTo(incrementalMember.getOrderCount()).isEqualTo(2);
+        assertThat(rebuiltMember.getAmount()).isEqualTo(incrementalMember.getAmount()).isEqualTo(3000);
+    }
+
+    private ItemDailySales itemDailySales(Long itemId) {
+        LocalDate today = LocalDate.now();
+        List<ItemDailySales> sales = salesReportService.findItemDailySales(itemId, today, today);
+        assertThat(sales).hasSize(1);
+        return sales.get(0);
+    }
+
+    private MemberMonthlySales memberMonthlySales(Long memberId) {
+        YearMonth thisMonth = YearMonth.now();
+        List<MemberMonthlySales> sales = salesReportService.findMemberMonthlySales(memberId, thisMonth, thisMonth);
+        assertThat(sales).hasSize(1);
+        return sales.get(0);
+    }
+
+    private Long createMember() {
+        Member member = new Member();
+        member.setName("sales-rollup-" + System.nanoTime());
+        member.setAddress(new Address("서울", "강가", "12345"));
+        return memberService.join(member);
+    }
+
+    private Long createBook(int price) {
+        Book book = new Book();
+        book.setName("sales-rollup-book");
+        book.setPrice(price);
+        book.setStockQuantity(100);
+        itemService.saveItem(book);
+        return book.getId();
+    }
+}
@@ -0,0 +1,149 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * 한 상품(Book)에 여러 스레드가 동시에 주문할 때 재고 락 방식별 비교
+ * 처리량, 재시도 횟수, p99 지연시간을 출력하고 재고가 정확히 0이 되는지 검증.
+ * 스레드마다 실제로 커밋해야 경합이 생기기 때문에 @Transactional을 붙이지 않음.
+ * */
+@SpringBootTest
+class StockContentionTest {
+
+    private static final int THREADS = 8;
+    private static final int ORDERS_PER_THREAD = 25;
+
+    @Autowired OrderService orderService;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+    @Autowired OrderProperties orderProperties;
+    @Autowired OptimisticLockRetryExecutor retryExecutor;
+    @Autowired StockLedger stockLedger;
+
+    private StockLockMode originalMode;
+    private int originalMaxAttempts;
+
+    @BeforeEach
+    void saveSettings() {
+        originalMode = orderProperties.getStockLockMode();
+        originalMaxAttempts = orderProperties.getRetry().getMaxAttempts();
+    }
+
+    @AfterEach
+    void restoreSettings() {
+        orderProperties.setStockLockMode(originalMode);
+        orderProperties.getRetry().setMaxAttempts(originalMaxAttempts);
+    }
+
+    @Test
+    void 낙관적_락_재시도() throws Exception {
+        orderProperties.getRetry().setMaxAttempts(50);      // 8개 스레드가 한 row에 몰리면 기본 5번으론 모자랄 수 있음
+        runContention(StockLockMode.OPTIMISTIC);
+    }
+
+    @Test
+    void 비관적_락() throws Exception {
+        runContention(StockLockMode.PESSIMISTIC);
+    }
+
+    @Test
+    void 조건부_update() throws Exception {
+        runContention(StockLockMode.ATOMIC);
+    }
+
+    @Test
+    void 인메모리_재고_장부() throws Exception {
+        runContention(StockLockMode.LEDGER);
+    }
+
+    private void runContention(StockLockMode mode) throws Exception {
+        //given
+        orderProperties.setStockLockMode(mode);
+        int totalOrders = THREADS * ORDERS_PER_THREAD;
+        Long memberId = createMember("contention-" + mode);
+        Long bookId = createBook("contention-" + mode, totalOrders);
+        long retriesBefore = retryExecutor.getRetryCount();
+
+        //when
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                long[] latencies = new long[ORDERS_PER_THREAD];
+                for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                    long begin = System.nanoTime();
+                    orderService.order(memberId, bookId, 1);
+                    latencies[i] = System.nanoTime() - begin;
+                }
+                return latencies;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        List<Long> latencies = new ArrayList<>();
+        try {
+            for (Future<long[]> future : futures) {
+                for (long latency : future.get()) {     // 주문이 하나라도 실패하면 여기서 ExecutionException
+                    latencies.add(latency);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        long elapsedNanos = System.nanoTime() - begin;
+
+        //then
+        Collections.sort(latencies);
+        long p99 = latencies.get((int) Math.ceil(latencies.size() * 0.99) - 1);
+        System.out.printf("[%s] %d threads x %d orders: %.1f orders/s, retries=%d, p50=%.2fms, p99=%.2fms%n",
+                mode, THREADS, ORDERS_PER_THREAD,
+                totalOrders / (elapsedNanos / 1_000_000_000.0),
+                retryExecutor.getRetryCount() - retriesBefore,
+                latencies.get(latencies.size() / 2) / 1_000_000.0,
+                p99 / 1_000_000.0);
+
+        assertThat(latencies).hasSize(totalOrders);
+        if (mode == StockLockMode.LEDGER) {
+            while (stockLedger.flush() > 0) {
+                // 장부가 item 테이블에 다 반영될 때까지
+            }
+        }
+        assertThat(itemService.findOne(bookId).getStockQuantity()).isZero();
+    }
+
+    private Long createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "강가", "12345"));
+        return memberService.join(member);
+    }
+
+    private Long createBook(String name, int stockQuantity) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(10000);
+        book.setStockQuantity(stockQuantity);
+        itemService.saveItem(book);
+        return book.getId();
+    }
+}